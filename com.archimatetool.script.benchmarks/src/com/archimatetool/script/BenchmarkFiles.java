@@ -0,0 +1,44 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * Helper
+ * 
+ * The same as TestFiles in the tests bundle but for this bundle's test data.
+ * TestFiles can't be used here as both bundles are fragments of the same host.
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class BenchmarkFiles {
+    
+    public static File getTestDataFolder() {
+        return getLocalBundleFolder("com.archimatetool.script.benchmarks", "testdata");
+    }
+    
+    public static File getTestFile(String fileName) {
+        return new File(getTestDataFolder(), fileName);
+    }
+
+    public static File getLocalBundleFolder(String bundleName, String path) {
+        URL url = Platform.getBundle(bundleName).getEntry("/");
+        try {
+            url = FileLocator.resolve(url);
+        }
+        catch(IOException ex) {
+            ex.printStackTrace();
+        }
+        return new File(url.getPath(), path);
+    }
+}
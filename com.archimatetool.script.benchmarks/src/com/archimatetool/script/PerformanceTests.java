@@ -0,0 +1,221 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.gef.commands.CommandStack;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.archimatetool.commandline.CommandLineState;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.script.dom.model.ModelGenerator;
+
+/**
+ * Performance Tests
+ *
+ * Runs scripts that do typical bulk work against generated models of increasing size and records the wall time
+ * and the bytes allocated by each run. A test fails if a run on the largest model goes over its time or allocation budget,
+ * or if allocation grows faster with model size than the scaling exponent allows.
+ * The time exponent is written to the results but not checked, as wall time on small models is too noisy to fit reliably.
+ * Budgets are set in testdata/perf-budgets.properties.
+ *
+ * The sizes can be set with the system property "jarchi.perf.sizes", for example "-Djarchi.perf.sizes=1000,4000,16000".
+ * Results are written as JSON to the file in the system property "jarchi.perf.results" or to "jarchi-perf-results.json" in the temp folder.
+ *
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class PerformanceTests {
+
+    private static final long SEED = 42;
+
+    private static final int[] SIZES = Arrays.stream(System.getProperty("jarchi.perf.sizes", "1000,4000,16000").split(","))
+                                             .map(String::trim)
+                                             .mapToInt(Integer::parseInt)
+                                             .sorted()
+                                             .toArray();
+
+    private static Properties budgets = new Properties();
+
+    private static List<Result> results = new ArrayList<>();
+
+    private static List<String> exponents = new ArrayList<>();
+
+    /**
+     * The result of one run of a script
+     */
+    private static class Result {
+        String script;
+        int concepts;
+        long time;
+        long allocatedBytes;
+
+        String toJSON() {
+            return String.format(Locale.ROOT, "{\"script\": \"%s\", \"concepts\": %d, \"timeMs\": %.3f, \"allocatedBytes\": %d}",
+                    script, concepts, time / 1_000_000.0, allocatedBytes);
+        }
+    }
+
+    @BeforeAll
+    public static void loadBudgets() throws IOException {
+        try(InputStream is = new FileInputStream(BenchmarkFiles.getTestFile("perf-budgets.properties"))) {
+            budgets.load(is);
+        }
+    }
+
+    @AfterAll
+    public static void writeResults() throws IOException {
+        String path = System.getProperty("jarchi.perf.results");
+        File file = path != null ? new File(path) : new File(System.getProperty("java.io.tmpdir"), "jarchi-perf-results.json");
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"sizes\": ").append(Arrays.toString(SIZES)).append(",\n");
+        sb.append("  \"runs\": [\n    ").append(String.join(",\n    ", results.stream().map(Result::toJSON).toList())).append("\n  ],\n");
+        sb.append("  \"exponents\": [\n    ").append(String.join(",\n    ", exponents)).append("\n  ]\n");
+        sb.append("}\n");
+
+        Files.writeString(file.toPath(), sb.toString(), StandardCharsets.UTF_8);
+        System.out.println("Performance results written to: " + file);
+    }
+
+    @Test
+    public void bulkCreate() {
+        runScript("perf-bulk-create.ajs");
+    }
+
+    @Test
+    public void bulkPropertyUpdate() {
+        runScript("perf-property-update.ajs");
+    }
+
+    @Test
+    public void findById() {
+        runScript("perf-find-by-id.ajs");
+    }
+
+    @Test
+    public void viewGeneration() {
+        runScript("perf-view-generation.ajs");
+    }
+
+    @Test
+    public void deleteCascade() {
+        runScript("perf-delete-cascade.ajs");
+    }
+
+    /**
+     * Run the script on a model of each size and check the results against the script's budgets
+     */
+    private void runScript(String scriptName) {
+        File file = BenchmarkFiles.getTestFile(scriptName);
+
+        // Warm up the script engine and the code paths on the smallest model
+        run(file, SIZES[0]);
+
+        List<Result> scriptResults = new ArrayList<>();
+        for(int size : SIZES) {
+            scriptResults.add(run(file, size));
+        }
+        results.addAll(scriptResults);
+
+        String name = scriptName.substring(0, scriptName.lastIndexOf('.'));
+        Result largest = scriptResults.get(scriptResults.size() - 1);
+
+        double maxTime = getBudget(name, "time");
+        double time = largest.time / 1_000_000.0;
+        assertTrue(time <= maxTime, String.format(Locale.ROOT, "%s took %.0f ms on %d concepts. Budget is %.0f ms", scriptName, time, largest.concepts, maxTime));
+
+        double maxAlloc = getBudget(name, "alloc");
+        double alloc = largest.allocatedBytes / (1024.0 * 1024.0);
+        assertTrue(alloc <= maxAlloc, String.format(Locale.ROOT, "%s allocated %.0f MB on %d concepts. Budget is %.0f MB", scriptName, alloc, largest.concepts, maxAlloc));
+
+        if(SIZES.length > 1) {
+            double maxExponent = getBudget(name, "exponent");
+            double timeExponent = getExponent(scriptResults, result -> result.time);
+            double allocExponent = getExponent(scriptResults, result -> result.allocatedBytes);
+
+            exponents.add(String.format(Locale.ROOT, "{\"script\": \"%s\", \"time\": %.3f, \"alloc\": %.3f}", scriptName, timeExponent, allocExponent));
+
+            assertTrue(allocExponent <= maxExponent, String.format(Locale.ROOT, "%s allocation grows with exponent %.2f. Budget is %.2f", scriptName, allocExponent, maxExponent));
+        }
+    }
+
+    /**
+     * Run the script on a new generated model set as the current model
+     */
+    private Result run(File file, int concepts) {
+        IArchimateModel model = new ModelGenerator(SEED).generate(concepts, concepts / 100);
+        model.setAdapter(CommandStack.class, new CommandStack());
+        CommandLineState.setModel(model);
+
+        try {
+            RunArchiScript rs = new RunArchiScript(file);
+            rs.throwExceptions = true;
+
+            Result result = new Result();
+            result.script = file.getName();
+            result.concepts = concepts;
+
+            long allocatedBytes = getAllocatedBytes();
+            long startTime = System.nanoTime();
+
+            rs.run();
+
+            result.time = System.nanoTime() - startTime;
+            result.allocatedBytes = getAllocatedBytes() - allocatedBytes;
+
+            return result;
+        }
+        finally {
+            CommandLineState.setModel(null);
+        }
+    }
+
+    /**
+     * @return The slope of the least squares fit of log(value) against log(model size)
+     */
+    private static double getExponent(List<Result> results, ToLongFunction<Result> value) {
+        int n = results.size();
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+
+        for(Result result : results) {
+            double x = Math.log(result.concepts);
+            double y = Math.log(Math.max(1, value.applyAsLong(result)));
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+
+        return (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+    }
+
+    private static double getBudget(String name, String key) {
+        return Double.parseDouble(budgets.getProperty(name + "." + key, budgets.getProperty("default." + key)));
+    }
+
+    private static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
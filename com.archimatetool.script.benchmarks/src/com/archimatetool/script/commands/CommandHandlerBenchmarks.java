@@ -0,0 +1,100 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.commands;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.commands.CommandStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.script.ScriptRunContext;
+import com.archimatetool.script.dom.model.ModelGenerator;
+
+/**
+ * CommandHandler Benchmarks
+ * 
+ * Each command sets the name of an element in a generated model that has a CommandStack.
+ * The commands are put on the CommandStack at the end of each iteration, as they are at the end of a script.
+ * 
+ * @author Phillip Beauvoir
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+@State(Scope.Thread)
+@SuppressWarnings("nls")
+public class CommandHandlerBenchmarks {
+    
+    @Param({ "true", "false" })
+    public boolean undoEnabled;
+    
+    @Param({ "false", "true" })
+    public boolean batch;
+    
+    private IArchimateModel model;
+    private List<IArchimateElement> elements;
+    private int index;
+    
+    @Setup(Level.Trial)
+    public void setupModel() {
+        model = new ModelGenerator(42).generate(10000, 100);
+        model.setAdapter(CommandStack.class, new CommandStack());
+        
+        elements = model.getFolders().stream()
+                .flatMap(folder -> folder.getFolders().stream())
+                .flatMap(folder -> folder.getElements().stream())
+                .filter(IArchimateElement.class::isInstance)
+                .map(IArchimateElement.class::cast)
+                .toList();
+    }
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        ScriptRunContext.start(null);
+        CommandHandler.init(undoEnabled);
+        
+        if(batch) {
+            CommandHandler.beginBatch();
+        }
+    }
+    
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if(batch) {
+            CommandHandler.endBatch();
+        }
+        
+        CommandHandler.finalise();
+        ScriptRunContext.end();
+        
+        // Don't keep the commands from one iteration to the next
+        ((CommandStack)model.getAdapter(CommandStack.class)).flush();
+    }
+    
+    @Benchmark
+    public void executeCommand() {
+        IArchimateElement element = elements.get(index++ % elements.size());
+        CommandHandler.executeCommand(new SetCommand(element, IArchimatePackage.Literals.NAMEABLE__NAME, "Name " + index));
+    }
+}
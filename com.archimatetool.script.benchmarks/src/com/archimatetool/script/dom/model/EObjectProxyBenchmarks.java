@@ -0,0 +1,48 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.ecore.EObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * EObjectProxy Benchmarks
+ * 
+ * @author Phillip Beauvoir
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class EObjectProxyBenchmarks {
+    
+    @Benchmark
+    @OperationsPerInvocation(GeneratedModelState.SAMPLE_SIZE)
+    public void get(GeneratedModelState state, Blackhole blackhole) {
+        for(EObject eObject : state.sample) {
+            blackhole.consume(EObjectProxy.get(eObject));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(GeneratedModelState.SAMPLE_SIZE)
+    public void getModel(GeneratedModelState state, Blackhole blackhole) {
+        for(EObject eObject : state.sample) {
+            blackhole.consume(EObjectProxy.get(eObject).getModel());
+        }
+    }
+}
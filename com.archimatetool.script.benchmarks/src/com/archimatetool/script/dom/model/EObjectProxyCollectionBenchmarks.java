@@ -0,0 +1,92 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * EObjectProxyCollection Benchmarks
+ * 
+ * Each benchmark queries all the elements or the top level folders of the generated model.
+ * 
+ * @author Phillip Beauvoir
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+@SuppressWarnings("nls")
+public class EObjectProxyCollectionBenchmarks {
+    
+    @Benchmark
+    public EObjectProxyCollection find(GeneratedModelState state) {
+        return state.folders.find();
+    }
+    
+    @Benchmark
+    public EObjectProxyCollection findSelector(GeneratedModelState state) {
+        return state.folders.find("business-actor");
+    }
+    
+    @Benchmark
+    public EObjectProxyCollection filter(GeneratedModelState state) {
+        return state.elements.filter("business-actor");
+    }
+    
+    @Benchmark
+    public EObjectProxyCollection filterProperty(GeneratedModelState state) {
+        return state.elements.filter("element[Owner=IT]");
+    }
+    
+    @Benchmark
+    public EObjectProxyCollection children(GeneratedModelState state) {
+        return state.folders.children();
+    }
+    
+    @Benchmark
+    public EObjectProxyCollection rels(GeneratedModelState state) {
+        return state.elements.rels();
+    }
+    
+    @Benchmark
+    public EObjectProxyCollection outRelsSelector(GeneratedModelState state) {
+        return state.elements.outRels("serving-relationship");
+    }
+    
+    @Benchmark
+    public EObjectProxyCollection objectRefs(GeneratedModelState state) {
+        return state.elements.objectRefs();
+    }
+    
+    @Benchmark
+    public boolean is(GeneratedModelState state) {
+        return state.elements.is("business-actor");
+    }
+    
+    @Benchmark
+    public EObjectProxyCollection has(GeneratedModelState state) {
+        return state.folders.has("business-actor");
+    }
+    
+    @Benchmark
+    public boolean any(GeneratedModelState state) {
+        return state.folders.any("business-actor");
+    }
+    
+    @Benchmark
+    public int count(GeneratedModelState state) {
+        return state.folders.count("business-actor");
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.emf.ecore.EObject;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * A generated model shared by the benchmarks in a trial.
+ *
+ * There is one view for every 100 concepts, so thousands of views in the larger models.
+ *
+ * @author Phillip Beauvoir
+ */
+@State(Scope.Benchmark)
+@SuppressWarnings("nls")
+public class GeneratedModelState {
+
+    public static final long SEED = 42;
+
+    // Number of objects in the sample
+    public static final int SAMPLE_SIZE = 1000;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int concepts;
+
+    public IArchimateModel model;
+
+    public ArchimateModelProxy modelProxy;
+
+    // All elements in the model
+    public EObjectProxyCollection elements;
+
+    // The top level folders of the model
+    public EObjectProxyCollection folders;
+
+    // All objects in the model
+    public List<EObject> objects;
+
+    // A random sample of the objects in the model
+    public List<EObject> sample;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        model = new ModelGenerator(SEED).generate(concepts, concepts / 100);
+        modelProxy = new ArchimateModelProxy(model);
+        elements = modelProxy.find("element");
+        folders = modelProxy.children();
+
+        objects = new ArrayList<>();
+        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            objects.add(iter.next());
+        }
+
+        Random random = new Random(SEED);
+        sample = new ArrayList<>(SAMPLE_SIZE);
+        for(int i = 0; i < SAMPLE_SIZE; i++) {
+            sample.add(objects.get(random.nextInt(objects.size())));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.script.ScriptRunContext;
+import com.archimatetool.script.commands.CommandHandler;
+
+/**
+ * ModelFactory Benchmarks
+ * 
+ * Objects are created in a new model for each iteration. Commands are not kept for undo.
+ * 
+ * @author Phillip Beauvoir
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+@State(Scope.Thread)
+@SuppressWarnings("nls")
+public class ModelFactoryBenchmarks {
+    
+    private IArchimateModel model;
+    private IArchimateElement source, target;
+    private IArchimateDiagramModel view;
+    private int x;
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        
+        ScriptRunContext.start(null);
+        CommandHandler.init(false);
+        
+        source = ModelFactory.createElement(model, "business-actor", "Source", null).getEObject();
+        target = ModelFactory.createElement(model, "business-role", "Target", null).getEObject();
+        view = (IArchimateDiagramModel)ModelFactory.createView(model, "archimate", "View", null).getEObject();
+        x = 0;
+    }
+    
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        CommandHandler.finalise();
+        ScriptRunContext.end();
+    }
+    
+    @Benchmark
+    public ArchimateElementProxy createElement() {
+        return ModelFactory.createElement(model, "business-actor", "Actor", null);
+    }
+    
+    @Benchmark
+    public ArchimateRelationshipProxy createRelationship() {
+        return ModelFactory.createRelationship(model, "assignment-relationship", "Assigned to", source, target, null);
+    }
+    
+    @Benchmark
+    public DiagramModelObjectProxy addArchimateDiagramObject() {
+        return ModelFactory.addArchimateDiagramObject(view, source, x++ % 1000, 0, -1, -1, false);
+    }
+    
+    @Benchmark
+    public DiagramModelObjectProxy createDiagramObject() {
+        return ModelFactory.createDiagramObject(view, "group", x++ % 1000, 0, -1, -1, false);
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.emf.ecore.EClass;
+
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModelArchimateConnection;
+import com.archimatetool.model.IDiagramModelArchimateObject;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.INameable;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.model.util.ArchimateModelUtils;
+
+/**
+ * Generates large models for benchmarks.
+ *
+ * The same seed always generates the same model, including the ids and names of objects,
+ * so that results can be compared between runs.
+ *
+ * Objects are added directly to the model rather than with commands so that large models are quick to generate.
+ *
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class ModelGenerator {
+
+    // Key of the property added to each element and its values
+    public static final String PROPERTY_KEY = "Owner";
+    public static final String[] PROPERTY_VALUES = { "IT", "Business", "Finance", "Operations", "Sales" };
+
+    // Number of objects in each sub-folder
+    private static final int FOLDER_SIZE = 500;
+
+    // Number of elements in each view
+    private static final int VIEW_SIZE = 20;
+
+    private static final EClass[] ELEMENT_CLASSES = ArchimateModelUtils.getAllArchimateClasses();
+    private static final EClass[] RELATIONSHIP_CLASSES = ArchimateModelUtils.getRelationsClasses();
+
+    private final Random random;
+
+    private int nextId;
+
+    // Top level folder -> the sub-folder that objects are currently added to
+    private Map<IFolder, IFolder> subFolders = new HashMap<>();
+
+    /**
+     * @param seed The seed for the random choice of types, ends of relationships and view contents
+     */
+    public ModelGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Generate a model
+     * @param conceptCount The number of concepts. Three fifths are elements and the rest are relationships.
+     * @param viewCount The number of views. Each view contains up to 20 elements and the relationships between them.
+     * @return The new model
+     */
+    public IArchimateModel generate(int conceptCount, int viewCount) {
+        nextId = 0;
+        subFolders.clear();
+
+        IArchimateModel model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setName("Generated Model " + conceptCount);
+        model.setDefaults();
+        setId(model);
+
+        for(IFolder folder : model.getFolders()) {
+            setId(folder);
+        }
+
+        int elementCount = conceptCount * 3 / 5;
+
+        List<IArchimateElement> elements = createElements(model, elementCount);
+        createRelationships(model, elements, conceptCount - elementCount);
+        createViews(model, elements, viewCount);
+
+        return model;
+    }
+
+    /**
+     * @return The id that the generator gives to the nth object it creates, starting at 0.
+     *         The model and its top level folders are created first.
+     */
+    public static String getId(int n) {
+        return "id-" + n;
+    }
+
+    /**
+     * @return The name that the generator gives to the object with the given id number
+     */
+    public static String getName(int n) {
+        return "Object " + n;
+    }
+
+    private List<IArchimateElement> createElements(IArchimateModel model, int count) {
+        List<IArchimateElement> elements = new ArrayList<>(count);
+
+        for(int i = 0; i < count; i++) {
+            IArchimateElement element = (IArchimateElement)IArchimateFactory.eINSTANCE.create(ELEMENT_CLASSES[random.nextInt(ELEMENT_CLASSES.length)]);
+            setId(element);
+
+            IProperty property = IArchimateFactory.eINSTANCE.createProperty();
+            property.setKey(PROPERTY_KEY);
+            property.setValue(PROPERTY_VALUES[random.nextInt(PROPERTY_VALUES.length)]);
+            element.getProperties().add(property);
+
+            addToFolder(model.getDefaultFolderForObject(element), element);
+            elements.add(element);
+        }
+
+        return elements;
+    }
+
+    private void createRelationships(IArchimateModel model, List<IArchimateElement> elements, int count) {
+        if(elements.isEmpty()) {
+            return;
+        }
+
+        for(int i = 0; i < count; i++) {
+            IArchimateElement source = elements.get(random.nextInt(elements.size()));
+            IArchimateElement target = elements.get(random.nextInt(elements.size()));
+
+            // If the relationship type isn't valid for the two elements use an association which always is
+            EClass eClass = RELATIONSHIP_CLASSES[random.nextInt(RELATIONSHIP_CLASSES.length)];
+            if(!ArchimateModelUtils.isValidRelationship(source, target, eClass)) {
+                eClass = IArchimatePackage.eINSTANCE.getAssociationRelationship();
+            }
+
+            IArchimateRelationship relationship = (IArchimateRelationship)IArchimateFactory.eINSTANCE.create(eClass);
+            setId(relationship);
+            relationship.connect(source, target);
+
+            addToFolder(model.getDefaultFolderForObject(relationship), relationship);
+        }
+    }
+
+    private void createViews(IArchimateModel model, List<IArchimateElement> elements, int count) {
+        if(elements.isEmpty()) {
+            return;
+        }
+
+        for(int i = 0; i < count; i++) {
+            IArchimateDiagramModel view = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+            setId(view);
+
+            // Diagram objects for the elements in this view
+            Map<IArchimateElement, IDiagramModelArchimateObject> dmos = new LinkedHashMap<>();
+
+            for(int j = 0; j < VIEW_SIZE; j++) {
+                IArchimateElement element = elements.get(random.nextInt(elements.size()));
+                if(dmos.containsKey(element)) {
+                    continue;
+                }
+
+                IDiagramModelArchimateObject dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+                dmo.setArchimateElement(element);
+                setId(dmo);
+                dmo.setBounds(IArchimateFactory.eINSTANCE.createBounds((j % 5) * 150, (j / 5) * 100, 120, 55));
+                view.getChildren().add(dmo);
+                dmos.put(element, dmo);
+            }
+
+            // Connections for the relationships between elements in this view
+            for(IDiagramModelArchimateObject source : dmos.values()) {
+                for(IArchimateRelationship relationship : source.getArchimateElement().getSourceRelationships()) {
+                    IDiagramModelArchimateObject target = relationship.getTarget() instanceof IArchimateElement element ? dmos.get(element) : null;
+                    if(target != null) {
+                        IDiagramModelArchimateConnection connection = IArchimateFactory.eINSTANCE.createDiagramModelArchimateConnection();
+                        connection.setArchimateRelationship(relationship);
+                        setId(connection);
+                        connection.connect(source, target);
+                    }
+                }
+            }
+
+            addToFolder(model.getDefaultFolderForObject(view), view);
+        }
+    }
+
+    /**
+     * Add an object to a sub-folder of a top level folder, starting a new sub-folder when the current one is full
+     */
+    private void addToFolder(IFolder topFolder, IArchimateModelObject object) {
+        IFolder folder = subFolders.get(topFolder);
+
+        if(folder == null || folder.getElements().size() >= FOLDER_SIZE) {
+            folder = IArchimateFactory.eINSTANCE.createFolder();
+            setId(folder);
+            folder.setType(FolderType.USER);
+            topFolder.getFolders().add(folder);
+            subFolders.put(topFolder, folder);
+        }
+
+        folder.getElements().add(object);
+    }
+
+    /**
+     * Set the id of an object and its name if it has not been named.
+     * Diagram components take their name from their concept and the default folders keep their names.
+     */
+    private void setId(IIdentifier object) {
+        int n = nextId++;
+        object.setId(getId(n));
+
+        if(object instanceof INameable nameable && (nameable.getName() == null || nameable.getName().isEmpty())) {
+            nameable.setName(getName(n));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.ecore.EObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.archimatetool.script.dom.model.SelectorFilterFactory.ISelectorFilter;
+
+/**
+ * SelectorFilterFactory Benchmarks
+ * 
+ * The model query benchmark uses the model's index where the selector allows it.
+ * 
+ * @author Phillip Beauvoir
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+@State(Scope.Benchmark)
+@SuppressWarnings("nls")
+public class SelectorFilterFactoryBenchmarks {
+    
+    @Param({ "*", "element", "business-actor", ".Object 5000", "business-actor.Object 5000", "#id-5000", "business-actor[Owner=IT]", "folder > element, view" })
+    public String selector;
+    
+    private ISelectorFilter filter;
+    
+    @Setup
+    public void setup() {
+        filter = SelectorFilterFactory.getInstance().getFilter(selector).orElseThrow();
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object getFilter() {
+        // The filter type is not public so return it as an Object for the generated benchmark code
+        return SelectorFilterFactory.getInstance().getFilter(selector).orElse(null);
+    }
+    
+    @Benchmark
+    public int accept(GeneratedModelState state) {
+        int count = 0;
+        
+        for(EObject eObject : state.objects) {
+            if(filter.accept(eObject)) {
+                count++;
+            }
+        }
+        
+        return count;
+    }
+    
+    @Benchmark
+    public EObjectProxyCollection modelFind(GeneratedModelState state) {
+        return state.modelProxy.find(selector);
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.commandline;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Client that sends a script to a running script daemon and writes the script's output to stdout and stderr.
+ * 
+ * This only uses the JDK so that it can be run without starting Archi.
+ * 
+ * Usage - (should be all on one line):
+ * 
+ * java -cp com.archimatetool.script.commandline.jar com.archimatetool.script.commandline.DaemonClient
+   "socket file" ("script file" [--noUndo] | --stop)
+ * 
+ * The exit code is 0 if the script was run, 1 if it could not be run and 2 if the daemon could not be reached.
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public final class DaemonClient {
+    
+    private static final int STATUS_NOT_CONNECTED = 2;
+    
+    public static void main(String[] args) {
+        if(args.length < 2) {
+            System.err.println("Usage: DaemonClient <socket file> (<script file> [--noUndo] | --stop)");
+            System.exit(DaemonProtocol.STATUS_ERROR);
+        }
+        
+        try {
+            System.exit(run(args));
+        }
+        catch(IOException ex) {
+            System.err.println("Could not connect to script daemon at " + args[0] + ": " + ex.getMessage());
+            System.exit(STATUS_NOT_CONNECTED);
+        }
+    }
+    
+    private static int run(String[] args) throws IOException {
+        try(SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(args[0]))) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            
+            if("--stop".equals(args[1])) {
+                out.writeUTF(DaemonProtocol.COMMAND_STOP);
+            }
+            else {
+                out.writeUTF(DaemonProtocol.COMMAND_RUN);
+                // The daemon's working directory is not ours
+                out.writeUTF(new File(args[1]).getAbsolutePath());
+                out.writeBoolean(args.length > 2 && "--noUndo".equals(args[2]));
+            }
+            
+            out.flush();
+            
+            while(true) {
+                byte type = in.readByte();
+                
+                if(type == DaemonProtocol.FRAME_EXIT) {
+                    return in.readInt();
+                }
+                
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                
+                if(type == DaemonProtocol.FRAME_ERR) {
+                    System.err.write(bytes);
+                    System.err.flush();
+                }
+                else {
+                    System.out.write(bytes);
+                    System.out.flush();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.commandline;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The protocol used between the script daemon and DaemonClient over a Unix domain socket.
+ * 
+ * The client sends a request and the daemon replies with frames until the exit frame:
+ * 
+ * Request:  UTF command ("run" or "stop"), then for "run" the UTF absolute path of the script file and a boolean for no undo
+ * Frames:   byte type, then for OUT and ERR an int length and that many bytes of UTF-8 text, for EXIT an int status
+ * 
+ * This class must only use the JDK as DaemonClient is run without OSGi.
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+final class DaemonProtocol {
+    
+    static final String COMMAND_RUN = "run";
+    static final String COMMAND_STOP = "stop";
+    
+    static final byte FRAME_OUT = 1;
+    static final byte FRAME_ERR = 2;
+    static final byte FRAME_EXIT = 3;
+    
+    static final int STATUS_OK = 0;
+    static final int STATUS_ERROR = 1;
+    
+    private DaemonProtocol() {
+    }
+    
+    /**
+     * Writes each block of bytes as an OUT or ERR frame
+     */
+    static class FrameOutputStream extends OutputStream {
+        private DataOutputStream out;
+        private byte type;
+        
+        /**
+         * @param out The stream to write frames to. Writes are synchronized on this so that it can be shared by OUT and ERR streams.
+         * @param type FRAME_OUT or FRAME_ERR
+         */
+        FrameOutputStream(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte)b }, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if(len == 0) {
+                return;
+            }
+            
+            synchronized(out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+                out.flush();
+            }
+        }
+    }
+    
+    /**
+     * Write the exit frame
+     */
+    static void writeExit(DataOutputStream out, int status) throws IOException {
+        synchronized(out) {
+            out.writeByte(FRAME_EXIT);
+            out.writeInt(status);
+            out.flush();
+        }
+    }
+}
@@ -6,6 +6,8 @@
 package com.archimatetool.script.commandline;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
@@ -14,6 +16,8 @@ import org.apache.commons.cli.Options;
 import com.archimatetool.commandline.AbstractCommandLineProvider;
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.script.RunArchiScript;
+import com.archimatetool.script.RunReport;
+import com.archimatetool.script.ScriptProfiler;
 
 /**
  * Command Line interface for running a script
@@ -22,6 +26,21 @@ import com.archimatetool.script.RunArchiScript;
  * 
  * Archi -consoleLog -nosplash -application com.archimatetool.commandline.app
    --script.runScript "file"
+   [--script.noUndo]
+   [--script.profile ["report file"]]
+   [--script.report ["json file"]]
+ * 
+ * To run more than one script in the same process, sharing the models that they load, repeat --script.runScript
+ * or give a manifest file that lists the scripts (see ScriptPipeline). --script.profile and --script.report can't be used:
+ * 
+ * Archi -consoleLog -nosplash -application com.archimatetool.commandline.app
+   --script.pipeline "manifest file"
+   [--script.noUndo]
+ * 
+ * Or to run scripts sent by DaemonClient until it sends a stop request:
+ * 
+ * Archi -consoleLog -nosplash -application com.archimatetool.commandline.app
+   --script.daemon "socket file"
  * 
  * 
  * @author Phillip Beauvoir
@@ -31,6 +50,11 @@ public class RunScriptProvider extends AbstractCommandLineProvider {
     static final String PREFIX = Messages.RunScriptProvider_0;
     
     static final String OPTION_RUN_SCRIPT = "script.runScript"; //$NON-NLS-1$
+    static final String OPTION_NO_UNDO = "script.noUndo"; //$NON-NLS-1$
+    static final String OPTION_DAEMON = "script.daemon"; //$NON-NLS-1$
+    static final String OPTION_PIPELINE = "script.pipeline"; //$NON-NLS-1$
+    static final String OPTION_PROFILE = "script.profile"; //$NON-NLS-1$
+    static final String OPTION_REPORT = "script.report"; //$NON-NLS-1$
     
     public RunScriptProvider() {
     }
@@ -41,6 +65,25 @@ public class RunScriptProvider extends AbstractCommandLineProvider {
             return;
         }
         
+        // Daemon mode
+        if(commandLine.hasOption(OPTION_DAEMON)) {
+            String socketFile = commandLine.getOptionValue(OPTION_DAEMON);
+            if(!StringUtils.isSet(socketFile)) {
+                logError(Messages.RunScriptProvider_7);
+                return;
+            }
+            
+            new ScriptDaemon(Path.of(socketFile), this::logMessage).run();
+            return;
+        }
+        
+        // Pipeline of more than one script sharing loaded models
+        String[] scriptFiles = commandLine.getOptionValues(OPTION_RUN_SCRIPT);
+        if(commandLine.hasOption(OPTION_PIPELINE) || (scriptFiles != null && scriptFiles.length > 1)) {
+            runPipeline(commandLine);
+            return;
+        }
+        
         String sFile = commandLine.getOptionValue(OPTION_RUN_SCRIPT);
         if(!StringUtils.isSet(sFile)) {
             logError(Messages.RunScriptProvider_1);
@@ -50,9 +93,64 @@ public class RunScriptProvider extends AbstractCommandLineProvider {
         File scriptFile = new File(sFile);
 
         RunArchiScript runner = new RunArchiScript(scriptFile);
+        
+        // There is no-one to undo changes so don't keep them
+        if(commandLine.hasOption(OPTION_NO_UNDO)) {
+            runner.setUndoEnabled(false);
+        }
+        
+        // Profile the script and write the report to the file if given, else to the console
+        if(commandLine.hasOption(OPTION_PROFILE)) {
+            String sReportFile = commandLine.getOptionValue(OPTION_PROFILE);
+            runner.setProfiler(new ScriptProfiler(StringUtils.isSet(sReportFile) ? new File(sReportFile) : null));
+        }
+        
+        // Report the performance of the run as JSON to the file if given, else to the console
+        if(commandLine.hasOption(OPTION_REPORT)) {
+            String sReportFile = commandLine.getOptionValue(OPTION_REPORT);
+            runner.setRunReport(new RunReport(StringUtils.isSet(sReportFile) ? new File(sReportFile) : null));
+        }
+        
         runner.run();
     }
     
+    private void runPipeline(CommandLine commandLine) throws Exception {
+        // The profiler and the run report are for one script
+        if(commandLine.hasOption(OPTION_PROFILE) || commandLine.hasOption(OPTION_REPORT)) {
+            logError(Messages.RunScriptProvider_15);
+            return;
+        }
+        
+        ScriptPipeline pipeline = new ScriptPipeline(this::logMessage);
+        
+        // Scripts given with --script.runScript are run first, in order
+        String[] scriptFiles = commandLine.getOptionValues(OPTION_RUN_SCRIPT);
+        if(scriptFiles != null) {
+            for(String sFile : scriptFiles) {
+                if(StringUtils.isSet(sFile)) {
+                    pipeline.addStep(List.of(new File(sFile)));
+                }
+            }
+        }
+        
+        if(commandLine.hasOption(OPTION_PIPELINE)) {
+            String sManifest = commandLine.getOptionValue(OPTION_PIPELINE);
+            if(!StringUtils.isSet(sManifest)) {
+                logError(Messages.RunScriptProvider_10);
+                return;
+            }
+            
+            pipeline.addManifest(new File(sManifest));
+        }
+        
+        // There is no-one to undo changes so don't keep them
+        if(commandLine.hasOption(OPTION_NO_UNDO)) {
+            pipeline.setUndoEnabled(false);
+        }
+        
+        pipeline.run();
+    }
+    
     @Override
     public Options getOptions() {
         Options options = new Options();
@@ -65,11 +163,51 @@ public class RunScriptProvider extends AbstractCommandLineProvider {
                 .build();
         options.addOption(option);
         
+        option = Option.builder()
+                .longOpt(OPTION_NO_UNDO)
+                .desc(Messages.RunScriptProvider_4)
+                .build();
+        options.addOption(option);
+        
+        option = Option.builder()
+                .longOpt(OPTION_DAEMON)
+                .hasArg()
+                .argName(Messages.RunScriptProvider_5)
+                .desc(Messages.RunScriptProvider_6)
+                .build();
+        options.addOption(option);
+        
+        option = Option.builder()
+                .longOpt(OPTION_PIPELINE)
+                .hasArg()
+                .argName(Messages.RunScriptProvider_8)
+                .desc(Messages.RunScriptProvider_9)
+                .build();
+        options.addOption(option);
+        
+        option = Option.builder()
+                .longOpt(OPTION_PROFILE)
+                .hasArg()
+                .optionalArg(true)
+                .argName(Messages.RunScriptProvider_11)
+                .desc(Messages.RunScriptProvider_12)
+                .build();
+        options.addOption(option);
+        
+        option = Option.builder()
+                .longOpt(OPTION_REPORT)
+                .hasArg()
+                .optionalArg(true)
+                .argName(Messages.RunScriptProvider_13)
+                .desc(Messages.RunScriptProvider_14)
+                .build();
+        options.addOption(option);
+        
         return options;
     }
     
     private boolean hasCorrectOptions(CommandLine commandLine) {
-        return commandLine.hasOption(OPTION_RUN_SCRIPT);
+        return commandLine.hasOption(OPTION_RUN_SCRIPT) || commandLine.hasOption(OPTION_DAEMON) || commandLine.hasOption(OPTION_PIPELINE);
     }
     
     @Override
@@ -0,0 +1,155 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.commandline;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import com.archimatetool.script.RunArchiScript;
+import com.archimatetool.script.dom.model.LoadedModelCache;
+
+/**
+ * Runs scripts sent by DaemonClient over a Unix domain socket so that many scripts can be run without starting Archi for each one.
+ * 
+ * Scripts are run one at a time on the thread that called run(), as they would be by the command line.
+ * The output of each script is sent back to the client as it is written.
+ * Script engines are prepared in advance and models loaded by scripts are kept between runs while they are not changed.
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+class ScriptDaemon {
+    
+    private Path socketPath;
+    private Consumer<String> logger;
+    private boolean running;
+    
+    /**
+     * @param socketPath The socket file to listen on. An existing file is replaced.
+     * @param logger Logs messages from the daemon
+     */
+    ScriptDaemon(Path socketPath, Consumer<String> logger) {
+        this.socketPath = socketPath;
+        this.logger = logger;
+    }
+    
+    /**
+     * Listen for requests until a stop request is received
+     */
+    void run() throws IOException {
+        // A socket file is left behind if a daemon was not stopped
+        Files.deleteIfExists(socketPath);
+        
+        LoadedModelCache.setEnabled(true);
+        
+        try(ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            logger.accept("Listening on " + socketPath);
+            
+            running = true;
+            
+            while(running) {
+                try(SocketChannel channel = server.accept()) {
+                    handleRequest(channel);
+                }
+                // A client that goes away shouldn't stop the daemon
+                catch(IOException ex) {
+                    logger.accept("Request failed: " + ex.getMessage());
+                }
+            }
+        }
+        finally {
+            LoadedModelCache.setEnabled(false);
+            Files.deleteIfExists(socketPath);
+        }
+        
+        logger.accept("Stopped");
+    }
+    
+    private void handleRequest(SocketChannel channel) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        
+        String command = in.readUTF();
+        
+        switch(command) {
+            case DaemonProtocol.COMMAND_RUN -> {
+                String path = in.readUTF();
+                boolean noUndo = in.readBoolean();
+                DaemonProtocol.writeExit(out, runScript(new File(path), noUndo, out));
+            }
+            
+            case DaemonProtocol.COMMAND_STOP -> {
+                running = false;
+                DaemonProtocol.writeExit(out, DaemonProtocol.STATUS_OK);
+            }
+            
+            default -> {
+                writeError(out, "Unknown command: " + command);
+                DaemonProtocol.writeExit(out, DaemonProtocol.STATUS_ERROR);
+            }
+        }
+    }
+    
+    /**
+     * Run a script with System.out and System.err sent to the client
+     * @return The exit status
+     */
+    private int runScript(File file, boolean noUndo, DataOutputStream out) throws IOException {
+        if(!file.exists()) {
+            writeError(out, "Script file not found: " + file);
+            return DaemonProtocol.STATUS_ERROR;
+        }
+        
+        logger.accept("Running " + file);
+        
+        PrintStream oldOut = System.out;
+        PrintStream oldErr = System.err;
+        
+        // If the client goes away the PrintStreams ignore the error and the script carries on
+        PrintStream newOut = new PrintStream(new BufferedOutputStream(new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.FRAME_OUT)), true, StandardCharsets.UTF_8);
+        PrintStream newErr = new PrintStream(new BufferedOutputStream(new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.FRAME_ERR)), true, StandardCharsets.UTF_8);
+        
+        System.setOut(newOut);
+        System.setErr(newErr);
+        
+        try {
+            RunArchiScript runner = new RunArchiScript(file);
+            runner.setUndoEnabled(!noUndo);
+            runner.run();
+            return DaemonProtocol.STATUS_OK;
+        }
+        catch(Exception ex) {
+            ex.printStackTrace();
+            return DaemonProtocol.STATUS_ERROR;
+        }
+        finally {
+            newOut.flush();
+            newErr.flush();
+            System.setOut(oldOut);
+            System.setErr(oldErr);
+        }
+    }
+    
+    private void writeError(DataOutputStream out, String message) throws IOException {
+        byte[] bytes = (message + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.FRAME_ERR).write(bytes, 0, bytes.length);
+    }
+}
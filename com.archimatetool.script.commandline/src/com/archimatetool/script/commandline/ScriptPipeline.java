@@ -0,0 +1,147 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.commandline;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import com.archimatetool.script.RunArchiScript;
+import com.archimatetool.script.dom.model.LoadedModelCache;
+
+/**
+ * Runs a list of scripts in one process so that models loaded by one script are shared with the scripts that follow.
+ * 
+ * The scripts are run in steps. A step is usually one script, but the scripts in a step can be run at the same time on separate threads.
+ * The next step is started when all of the scripts in the previous step have finished.
+ * Scripts that are run at the same time can read the same model but must not change a model that another script in the step uses,
+ * and must not use the UI. The model index and the proxy cache can be used from more than one thread.
+ * 
+ * A manifest file has one step on each line. The scripts in a step are separated by "|".
+ * Blank lines and lines starting with "#" are ignored. Relative paths are resolved from the manifest's folder.
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+class ScriptPipeline {
+    
+    static final String PARALLEL_SEPARATOR = "|";
+    
+    private List<List<File>> steps = new ArrayList<>();
+    private boolean undoEnabled = true;
+    private Consumer<String> logger;
+    
+    /**
+     * @param logger Logs the scripts as they are run
+     */
+    ScriptPipeline(Consumer<String> logger) {
+        this.logger = logger;
+    }
+    
+    /**
+     * Add the steps in a manifest file
+     */
+    void addManifest(File manifest) throws IOException {
+        File folder = manifest.getAbsoluteFile().getParentFile();
+        
+        for(String line : Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8)) {
+            line = line.strip();
+            if(line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            
+            List<File> scripts = new ArrayList<>();
+            
+            for(String path : line.split("\\" + PARALLEL_SEPARATOR)) {
+                path = path.strip();
+                if(!path.isEmpty()) {
+                    File file = new File(path);
+                    scripts.add(file.isAbsolute() ? file : new File(folder, path));
+                }
+            }
+            
+            addStep(scripts);
+        }
+    }
+    
+    /**
+     * Add a step
+     * @param scripts The scripts to run. If there is more than one they are run at the same time.
+     */
+    void addStep(List<File> scripts) {
+        if(!scripts.isEmpty()) {
+            steps.add(scripts);
+        }
+    }
+    
+    /**
+     * @param undoEnabled If false changes made by the scripts are not kept for undo
+     */
+    void setUndoEnabled(boolean undoEnabled) {
+        this.undoEnabled = undoEnabled;
+    }
+    
+    /**
+     * Run the steps in order
+     */
+    void run() throws Exception {
+        // Models are loaded once and changes are seen by the scripts that follow
+        LoadedModelCache.setEnabled(true, true);
+        
+        ExecutorService executor = null;
+        
+        try {
+            for(List<File> step : steps) {
+                // One script is run on this thread as it would be without a pipeline
+                if(step.size() == 1) {
+                    runScript(step.get(0));
+                    continue;
+                }
+                
+                if(executor == null) {
+                    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+                }
+                
+                List<Future<?>> futures = new ArrayList<>();
+                for(File file : step) {
+                    futures.add(executor.submit(() -> runScript(file)));
+                }
+                
+                for(Future<?> future : futures) {
+                    try {
+                        future.get();
+                    }
+                    catch(ExecutionException ex) {
+                        throw ex.getCause() instanceof Exception cause ? cause : ex;
+                    }
+                }
+            }
+        }
+        finally {
+            if(executor != null) {
+                executor.shutdownNow();
+            }
+            
+            LoadedModelCache.setEnabled(false);
+        }
+    }
+    
+    private void runScript(File file) {
+        logger.accept("Running " + file);
+        
+        RunArchiScript runner = new RunArchiScript(file);
+        runner.setUndoEnabled(undoEnabled);
+        runner.run();
+    }
+}
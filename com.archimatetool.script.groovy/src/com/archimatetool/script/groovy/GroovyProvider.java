@@ -6,9 +6,7 @@
 package com.archimatetool.script.groovy;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.Optional;
 
@@ -20,6 +18,7 @@ import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.graphics.Image;
 
 import com.archimatetool.script.IScriptEngineProvider;
+import com.archimatetool.script.RunReport;
 
 
 /**
@@ -30,18 +29,21 @@ public class GroovyProvider implements IScriptEngineProvider {
     
     public static final String ID = "com.archimatetool.script.provider.groovy";
     
+    // Maximum number of scripts to keep
+    private static final int SCRIPT_CACHE_SIZE = 50;
+    
+    private GroovyScriptCache scriptCache = new GroovyScriptCache(SCRIPT_CACHE_SIZE);
+    
     @Override
     public void run(File file, ScriptEngine engine) throws IOException, ScriptException {
         // Init script
+        RunReport.startPhase("init");
         URL initURL = GroovyPlugin.getInstance().getBundle().getEntry("groovy/init.groovy");
-        try(InputStreamReader initReader = new InputStreamReader(initURL.openStream())) {
-            engine.eval(initReader);
-        }
+        scriptCache.eval(initURL, engine);
         
         // Evaluate the script
-        try(FileReader scriptReader = new FileReader(file)) {
-            engine.eval(scriptReader);
-        }
+        RunReport.startPhase("script");
+        scriptCache.eval(file, engine);
     }
 
     @Override
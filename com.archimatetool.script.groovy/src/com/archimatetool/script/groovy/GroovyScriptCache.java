@@ -0,0 +1,129 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.groovy;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.jsr223.GroovyCompiledScript;
+import org.codehaus.groovy.jsr223.GroovyScriptEngineImpl;
+
+import groovy.lang.GroovyClassLoader;
+
+
+/**
+ * A bounded cache of compiled Groovy script classes keyed by file path or URL and last modified time.
+ *
+ * A script is compiled to a class once and the class is then run by the engine created for each run.
+ * Only the class is shared. The run's engine creates the script object and keeps the script's methods,
+ * so functions defined by one run are not seen by later or parallel runs.
+ * Each class is compiled in its own class loader so that it can be unloaded when it is discarded from the cache.
+ * A script that has been modified since it was compiled is compiled again.
+ */
+@SuppressWarnings("nls")
+class GroovyScriptCache {
+
+    private int maxSize;
+
+    // Access is synchronized on this
+    private Map<String, CachedClass> cache;
+    private int scriptCount;
+
+    private static class CachedClass {
+        long lastModified;
+        Class<?> scriptClass;
+
+        CachedClass(long lastModified, Class<?> scriptClass) {
+            this.lastModified = lastModified;
+            this.scriptClass = scriptClass;
+        }
+    }
+
+    /**
+     * @param maxSize The maximum number of compiled scripts to keep. The least recently used are discarded first.
+     */
+    GroovyScriptCache(int maxSize) {
+        this.maxSize = maxSize;
+
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClass> eldest) {
+                return size() > GroovyScriptCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Run a script file with the given engine
+     * @param file The script file
+     * @param engine The Groovy engine used for this run
+     * @return The result of the evaluation
+     */
+    Object eval(File file, ScriptEngine engine) throws IOException, ScriptException {
+        GroovyScriptEngineImpl groovyEngine = (GroovyScriptEngineImpl)engine;
+        Class<?> scriptClass = getScriptClass(file.getAbsolutePath(), file.lastModified(), () -> new FileReader(file), groovyEngine);
+        return new GroovyCompiledScript(groovyEngine, scriptClass).eval(engine.getContext());
+    }
+
+    /**
+     * Run a script at a URL with the given engine
+     * @param url The URL of the script, such as the init script in the bundle
+     * @param engine The Groovy engine used for this run
+     * @return The result of the evaluation
+     */
+    Object eval(URL url, ScriptEngine engine) throws IOException, ScriptException {
+        GroovyScriptEngineImpl groovyEngine = (GroovyScriptEngineImpl)engine;
+        URLConnection connection = url.openConnection();
+        Class<?> scriptClass = getScriptClass(url.toExternalForm(), connection.getLastModified(), () -> new InputStreamReader(connection.getInputStream()), groovyEngine);
+        return new GroovyCompiledScript(groovyEngine, scriptClass).eval(engine.getContext());
+    }
+
+    private interface ReaderSupplier {
+        Reader get() throws IOException;
+    }
+
+    /**
+     * @return The compiled class of the script for the key, compiling it if it isn't in the cache or has been modified
+     */
+    private synchronized Class<?> getScriptClass(String key, long lastModified, ReaderSupplier readerSupplier, GroovyScriptEngineImpl engine) throws IOException, ScriptException {
+        CachedClass cachedClass = cache.get(key);
+        if(cachedClass != null && cachedClass.lastModified == lastModified) {
+            return cachedClass.scriptClass;
+        }
+
+        String source;
+        try(Reader reader = readerSupplier.get()) {
+            StringWriter writer = new StringWriter();
+            reader.transferTo(writer);
+            source = writer.toString();
+        }
+
+        // Compile with the same parent class loader as the engine so that the script sees the same classes
+        // Script names are generated as the engine does
+        GroovyClassLoader loader = new GroovyClassLoader(engine.getClassLoader().getParent());
+        
+        try {
+            Class<?> scriptClass = loader.parseClass(source, "Script" + (++scriptCount) + ".groovy");
+            cache.put(key, new CachedClass(lastModified, scriptClass));
+            return scriptClass;
+        }
+        catch(CompilationFailedException ex) {
+            throw new ScriptException(ex);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.graphics.Image;
 
 import com.archimatetool.script.IScriptEngineProvider;
+import com.archimatetool.script.RunReport;
 
 
 /**
@@ -33,12 +34,14 @@ public class JRubyProvider implements IScriptEngineProvider {
     @Override
     public void run(File file, ScriptEngine engine) throws IOException, ScriptException {
         // Init script
+        RunReport.startPhase("init");
         URL initURL = JRubyPlugin.getInstance().getBundle().getEntry("jruby/init.rb");
         try(InputStreamReader initReader = new InputStreamReader(initURL.openStream())) {
             engine.eval(initReader);
         }
         
         // Evaluate the script
+        RunReport.startPhase("script");
         try(FileReader scriptReader = new FileReader(file)) {
             engine.eval(scriptReader);
         }
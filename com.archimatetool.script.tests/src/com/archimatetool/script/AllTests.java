@@ -16,7 +16,9 @@ import com.archimatetool.script.dom.model.AllModelTests;
 @SelectClasses({
     AllModelTests.class,
     JSProviderTests.class,
-    RunArchiScriptTests.class
+    RunArchiScriptTests.class,
+    ScriptEnginePoolTests.class,
+    ScriptRunContextTests.class
 })
 
 @SuiteDisplayName("All Scripting Tests")
@@ -6,12 +6,19 @@
 package com.archimatetool.script;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.Map;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 
 import com.archimatetool.script.preferences.IPreferenceConstants;
+import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
 
 /**
  * JSProvider Tests
@@ -40,12 +47,48 @@ public class JSProviderTests {
             fail("Graal engine not found");
         });
         
+        // Read by GraalJSScriptEngine when its class is loaded
         assertEquals("true", System.getProperty("polyglot.js.nashorn-compat"));
-        assertEquals("false", System.getProperty("polyglot.engine.WarnInterpreterOnly"));
-        assertEquals("latest", System.getProperty("polyglot.js.ecmascript-version"));
         
-        assertEquals("true", System.getProperty("polyglot.js.commonjs-require"));
-        assertEquals(ArchiScriptPlugin.getInstance().getPreferenceStore().getString(IPreferenceConstants.PREFS_SCRIPTS_FOLDER), System.getProperty("polyglot.js.commonjs-require-cwd"));
+        // Other options are passed to the engine builder
+        Map<String, String> options = provider.getGraalEngineOptions();
+        assertEquals("true", options.get("js.nashorn-compat"));
+        assertEquals("false", options.get("engine.WarnInterpreterOnly"));
+        assertEquals("latest", options.get("js.ecmascript-version"));
+        
+        assertEquals("true", options.get("js.commonjs-require"));
+        assertEquals(ArchiScriptPlugin.getInstance().getPreferenceStore().getString(IPreferenceConstants.PREFS_SCRIPTS_FOLDER), options.get("js.commonjs-require-cwd"));
+        
+        assertNull(System.getProperty("polyglot.js.commonjs-require"));
+    }
+    
+    @Test
+    public void graalEngineOptions_CommonJSDisabled() throws Exception {
+        ArchiScriptPlugin.getInstance().getPreferenceStore().setValue(IPreferenceConstants.PREFS_COMMONJS_ENABLED, false);
+        
+        try {
+            Map<String, String> options = new JSProvider().getGraalEngineOptions();
+            assertFalse(options.containsKey("js.commonjs-require"));
+            assertFalse(options.containsKey("js.commonjs-require-cwd"));
+        }
+        finally {
+            ArchiScriptPlugin.getInstance().getPreferenceStore().setToDefault(IPreferenceConstants.PREFS_COMMONJS_ENABLED);
+        }
+    }
+    
+    @Test
+    public void graalEngine_SharesPolyglotEngine() throws Exception {
+        // Set to Graal engine
+        ArchiScriptPlugin.getInstance().getPreferenceStore().setValue(IPreferenceConstants.PREFS_JS_ENGINE, 2);
+        
+        JSProvider provider = new JSProvider();
+        
+        GraalJSScriptEngine engine1 = (GraalJSScriptEngine)provider.createScriptEngine().get();
+        GraalJSScriptEngine engine2 = (GraalJSScriptEngine)provider.createScriptEngine().get();
+        
+        // Each engine has its own context in the same polyglot engine
+        assertNotSame(engine1, engine2);
+        assertSame(engine1.getPolyglotEngine(), engine2.getPolyglotEngine());
     }
     
     @Test
@@ -5,7 +5,21 @@
  */
 package com.archimatetool.script;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 /**
  * Run Tests
@@ -45,6 +59,63 @@ public class RunArchiScriptTests {
         runScript("test-legend.ajs");
     }
 
+    @Test
+    public void testBatchScript() {
+        runScript("test-batch.ajs");
+    }
+
+    @Test
+    public void testProfiler(@TempDir Path tempDir) throws Exception {
+        File reportFile = tempDir.resolve("profile.txt").toFile();
+        
+        RunArchiScript rs = new RunArchiScript(TestFiles.getTestFile("test-model.ajs"));
+        rs.throwExceptions = true;
+        rs.setProfiler(new ScriptProfiler(reportFile));
+        rs.run();
+        
+        assertTrue(Files.readString(reportFile.toPath()).startsWith("Profile of test-model.ajs"));
+        assertTrue(new File(reportFile.getPath() + ".collapsed").exists());
+    }
+
+    @Test
+    public void testRunReport(@TempDir Path tempDir) throws Exception {
+        File jsonFile = tempDir.resolve("report.json").toFile();
+        
+        RunArchiScript rs = new RunArchiScript(TestFiles.getTestFile("test-model.ajs"));
+        rs.throwExceptions = true;
+        rs.setRunReport(new RunReport(jsonFile));
+        rs.run();
+        
+        String json = Files.readString(jsonFile.toPath());
+        assertTrue(json.contains("\"script\": \"test-model.ajs\""));
+        assertTrue(json.contains("\"init\":"));
+        assertTrue(json.contains("\"dispose\":"));
+        assertFalse(json.contains("\"proxiesCreated\": 0,"));
+    }
+
+    @Test
+    public void testFlightRecorderEvents(@TempDir Path tempDir) throws Exception {
+        Path recordingFile = tempDir.resolve("recording.jfr");
+        
+        try(Recording recording = new Recording()) {
+            recording.enable("com.archimatetool.script.ScriptRun");
+            recording.enable("com.archimatetool.script.Command");
+            recording.start();
+            runScript("test-model.ajs");
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        
+        List<RecordedEvent> runEvents = events.stream().filter(event -> event.getEventType().getName().equals("com.archimatetool.script.ScriptRun")).toList();
+        assertEquals(1, runEvents.size());
+        assertTrue(runEvents.get(0).getString("script").endsWith("test-model.ajs"));
+        assertFalse(runEvents.get(0).getBoolean("cancelled"));
+        
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("com.archimatetool.script.Command")));
+    }
+
     private void runScript(String scriptFile) {
         RunArchiScript rs = new RunArchiScript(TestFiles.getTestFile(scriptFile));
         rs.throwExceptions = true;
@@ -0,0 +1,139 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.SimpleBindings;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ScriptEnginePool Tests
+ *
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class ScriptEnginePoolTests {
+
+    private String configuration;
+    private List<ScriptEngine> createdEngines;
+    private List<ScriptEngine> disposedEngines;
+    private ScriptEnginePool pool;
+
+    @BeforeEach
+    public void runOnceBeforeEachTest() {
+        configuration = "config1";
+        createdEngines = new ArrayList<>();
+        disposedEngines = new ArrayList<>();
+        pool = new ScriptEnginePool(1, () -> configuration, this::createEngine, this::disposeEngine);
+    }
+
+    @Test
+    public void take_CreatesEngine_WhenPoolIsEmpty() throws Exception {
+        ScriptEngine engine = pool.take().get();
+        assertSame(createdEngines.get(0), engine);
+
+        // The pool is filled again
+        waitForEngineCount(1);
+        assertEquals(2, createdEngines.size());
+    }
+
+    @Test
+    public void take_ReturnsEngineFromPool() throws Exception {
+        pool.fill();
+        waitForEngineCount(1);
+
+        ScriptEngine engine = pool.take().get();
+        assertSame(createdEngines.get(0), engine);
+
+        // Engines are not reused
+        waitForEngineCount(1);
+        assertNotSame(engine, pool.take().get());
+    }
+
+    @Test
+    public void take_DiscardsPool_WhenConfigurationChanged() throws Exception {
+        pool.fill();
+        waitForEngineCount(1);
+        ScriptEngine pooledEngine = createdEngines.get(0);
+
+        configuration = "config2";
+
+        ScriptEngine engine = pool.take().get();
+        assertNotSame(pooledEngine, engine);
+        
+        // The discarded engine is disposed
+        assertEquals(List.of(pooledEngine), getDisposedEngines());
+    }
+
+    @Test
+    public void clear() throws Exception {
+        pool.fill();
+        waitForEngineCount(1);
+
+        pool.clear();
+        assertEquals(0, pool.getEngineCount());
+        assertEquals(List.of(createdEngines.get(0)), getDisposedEngines());
+    }
+
+    private synchronized ScriptEngine createEngine() {
+        ScriptEngine engine = new TestScriptEngine();
+        createdEngines.add(engine);
+        return engine;
+    }
+
+    private synchronized void disposeEngine(ScriptEngine engine) {
+        disposedEngines.add(engine);
+    }
+
+    private synchronized List<ScriptEngine> getDisposedEngines() {
+        return new ArrayList<>(disposedEngines);
+    }
+
+    private void waitForEngineCount(int count) throws InterruptedException {
+        for(int i = 0; i < 100 && pool.getEngineCount() != count; i++) {
+            Thread.sleep(50);
+        }
+
+        assertTrue(pool.getEngineCount() == count, "Pool was not filled");
+    }
+
+    private static class TestScriptEngine extends AbstractScriptEngine {
+        @Override
+        public Object eval(String script, ScriptContext context) {
+            return null;
+        }
+
+        @Override
+        public Object eval(Reader reader, ScriptContext context) {
+            return null;
+        }
+
+        @Override
+        public Bindings createBindings() {
+            return new SimpleBindings();
+        }
+
+        @Override
+        public ScriptEngineFactory getFactory() {
+            return null;
+        }
+    }
+}
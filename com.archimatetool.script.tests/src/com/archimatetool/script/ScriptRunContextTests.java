@@ -0,0 +1,119 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ScriptRunContext Tests
+ *
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class ScriptRunContextTests {
+
+    @AfterEach
+    public void runOnceAfterEachTest() {
+        ScriptRunContext.end();
+    }
+
+    @Test
+    public void start_NestedContextIsRestored() {
+        ScriptRunContext outer = ScriptRunContext.start("outer");
+        assertSame(outer, ScriptRunContext.getCurrent());
+
+        ScriptRunContext inner = ScriptRunContext.start("inner");
+        assertSame(inner, ScriptRunContext.getCurrent());
+        assertEquals("inner", ScriptRunContext.getCurrent().getEngineName());
+
+        ScriptRunContext.end();
+        assertSame(outer, ScriptRunContext.getCurrent());
+        assertEquals("outer", ScriptRunContext.getCurrent().getEngineName());
+    }
+
+    @Test
+    public void getCurrent_OnlyBetweenStartAndEnd() {
+        assertNull(ScriptRunContext.peek());
+        assertThrows(IllegalStateException.class, () -> ScriptRunContext.getCurrent());
+        
+        ScriptRunContext context = ScriptRunContext.start("main");
+        assertSame(context, ScriptRunContext.getCurrent());
+        assertSame(context, ScriptRunContext.peek());
+        
+        ScriptRunContext.end();
+        assertNull(ScriptRunContext.peek());
+        assertThrows(IllegalStateException.class, () -> ScriptRunContext.getCurrent());
+    }
+
+    @Test
+    public void get_ObjectsBelongToContext() {
+        ScriptRunContext outer = ScriptRunContext.start("outer");
+        outer.put(String.class, "outer");
+
+        ScriptRunContext inner = ScriptRunContext.start("inner");
+        assertNull(inner.get(String.class));
+        assertEquals("inner", inner.get(String.class, () -> "inner"));
+
+        ScriptRunContext.end();
+        assertEquals("outer", ScriptRunContext.getCurrent().get(String.class));
+        assertEquals("outer", outer.remove(String.class));
+        assertNull(outer.get(String.class));
+    }
+
+    @Test
+    public void getCurrent_ContextBelongsToThread() throws Exception {
+        ScriptRunContext context = ScriptRunContext.start("main");
+        AtomicReference<ScriptRunContext> otherContext = new AtomicReference<>();
+
+        Thread thread = new Thread(() -> {
+            otherContext.set(ScriptRunContext.start("other"));
+            ScriptRunContext.end();
+        });
+        thread.start();
+        thread.join();
+
+        assertNotSame(context, otherContext.get());
+        assertSame(context, ScriptRunContext.getCurrent());
+    }
+
+    @Test
+    public void checkCancelled() {
+        ScriptRunContext context = ScriptRunContext.start("main");
+        assertFalse(context.isCancelled());
+        assertDoesNotThrow(() -> ScriptRunContext.checkCancelled());
+
+        context.cancel();
+        assertTrue(context.isCancelled());
+        assertThrows(ScriptCancelledException.class, () -> ScriptRunContext.checkCancelled());
+
+        context.finish();
+        assertDoesNotThrow(() -> ScriptRunContext.checkCancelled());
+    }
+
+    @Test
+    public void checkCancelled_NestedRun() {
+        ScriptRunContext outer = ScriptRunContext.start("outer");
+        ScriptRunContext inner = ScriptRunContext.start("inner");
+
+        outer.cancel();
+        assertTrue(inner.isCancelled());
+        assertThrows(ScriptCancelledException.class, () -> ScriptRunContext.checkCancelled());
+
+        ScriptRunContext.end();
+    }
+}
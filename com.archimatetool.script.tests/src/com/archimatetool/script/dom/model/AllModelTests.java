@@ -18,6 +18,7 @@ import org.junit.platform.suite.api.SuiteDisplayName;
     ArchimateModelProxyTests.class,
     ArchimateRelationshipProxyTests.class,
     CanvasDiagramModelProxyTests.class,
+    CompoundSelectorFilterTests.class,
     CurrentModelTests.class,
     DiagramModelConnectionProxyTests.class,
     DiagramModelGroupProxyTests.class,
@@ -26,7 +27,9 @@ import org.junit.platform.suite.api.SuiteDisplayName;
     DiagramModelReferenceProxyTests.class,
     EObjectProxyCollectionTests.class,
     FolderProxyTests.class,
+    LoadedModelCacheTests.class,
     ModelFactoryTests.class,
+    ModelIndexTests.class,
     ModelTests.class,
     ModelUtilTests.class,
     ProfileProxyTests.class,
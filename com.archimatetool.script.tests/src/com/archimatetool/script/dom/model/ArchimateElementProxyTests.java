@@ -8,20 +8,29 @@ package com.archimatetool.script.dom.model;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.archimatetool.editor.model.DiagramModelUtils;
 import com.archimatetool.model.FolderType;
 import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateDiagramModel;
 import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IBusinessActor;
 import com.archimatetool.model.IBusinessRole;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelArchimateObject;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IJunction;
 import com.archimatetool.model.util.ArchimateModelUtils;
@@ -99,6 +108,36 @@ public class ArchimateElementProxyTests extends ArchimateConceptProxyTests {
         assertEquals(0, testProxy.outRels().size());
     }
 
+    @Test
+    public void objectRefs_DiagramModelOrder() {
+        // The same order as searching each diagram model in turn
+        List<EObject> expected = new ArrayList<>();
+        for(IDiagramModel dm : testModelProxy.getEObject().getDiagramModels()) {
+            expected.addAll(DiagramModelUtils.findDiagramModelComponentsForArchimateConcept(dm, testEObject));
+        }
+        
+        List<EObject> actual = new ArrayList<>();
+        for(EObjectProxy proxy : testProxy.objectRefs()) {
+            actual.add(proxy.getEObject());
+        }
+        
+        assertEquals(3, actual.size());
+        assertEquals(expected, actual);
+    }
+    
+    @Test
+    public void viewRefs_NotInModel() {
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        IArchimateDiagramModel dm = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        IDiagramModelArchimateObject dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo.setArchimateElement(element);
+        dm.getChildren().add(dmo);
+        
+        ArchimateElementProxy proxy = (ArchimateElementProxy)EObjectProxy.get(element);
+        assertEquals(1, proxy.viewRefs().size());
+        assertSame(dm, proxy.viewRefs().first().getEObject());
+    }
+
     @Test
     public void setType() {
         testProxy.setName("Type Test");
@@ -118,6 +157,11 @@ public class ArchimateElementProxyTests extends ArchimateConceptProxyTests {
         assertSame(newElementProxy, testProxy);
         assertTrue(newElementProxy.getEObject() instanceof IBusinessRole);
         
+        // This is now the proxy for the new element and not for the old one
+        assertSame(newElementProxy, EObjectProxy.get(newElementProxy.getEObject()));
+        assertNotSame(newElementProxy, EObjectProxy.get(testEObject));
+        assertSame(testEObject, EObjectProxy.get(testEObject).getEObject());
+        
         assertEquals("Type Test", newElementProxy.getName());
         assertEquals("Documentation", newElementProxy.getDocumentation());
         assertEquals(2, newElementProxy.prop().size());
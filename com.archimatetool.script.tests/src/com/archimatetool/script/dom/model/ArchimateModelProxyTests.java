@@ -14,7 +14,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.eclipse.emf.ecore.EObject;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,8 +28,11 @@ import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IBusinessActor;
+import com.archimatetool.model.IBusinessRole;
 import com.archimatetool.model.IIdentifier;
 import com.archimatetool.script.ArchiScriptException;
+import com.archimatetool.script.ScriptRunContext;
 import com.archimatetool.script.TestFiles;
 
 
@@ -73,17 +78,25 @@ public class ArchimateModelProxyTests extends EObjectProxyTests {
     
     @Test
     public void setAsCurrent() {
-        // Create our own instance as the singleton won't be loaded
-        CurrentModel currentModel = new CurrentModel();
+        // The current model belongs to a script run
+        ScriptRunContext.start(null);
         
-        // Initially this will be null and so will throw an ArchiScriptException
-        assertThrows(ArchiScriptException.class, () -> {
-            currentModel.getEObject();
-        });
-        
-        testProxy.setAsCurrent();
-        assertEquals(testProxy, currentModel);
-        assertEquals(testProxy.getEObject(), currentModel.getEObject());
+        try {
+            // Create our own instance as the singleton won't be loaded
+            CurrentModel currentModel = new CurrentModel();
+            
+            // Initially this will be null and so will throw an ArchiScriptException
+            assertThrows(ArchiScriptException.class, () -> {
+                currentModel.getEObject();
+            });
+            
+            testProxy.setAsCurrent();
+            assertEquals(testProxy, currentModel);
+            assertEquals(testProxy.getEObject(), currentModel.getEObject());
+        }
+        finally {
+            ScriptRunContext.end();
+        }
     }
     
     @Override
@@ -152,6 +165,38 @@ public class ArchimateModelProxyTests extends EObjectProxyTests {
         assertEquals(5, collection.size());
     }
     
+    @Test
+    public void find_Selector_AbstractType() {
+        ArchimateModelProxy testModelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        
+        EObjectProxyCollection modelCollection = new EObjectProxyCollection();
+        modelCollection.add(testModelProxy);
+        
+        // An abstract type gives the same result from the model as from a collection
+        for(String selector : new String[] { "business-element", "archimate-element", "diagram-model-object" }) {
+            assertEquals(modelCollection.find(selector), testModelProxy.find(selector));
+        }
+    }
+    
+    @Test
+    public void find_CompoundSelector_TreeOrder() {
+        ArchimateModelProxy testModelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        
+        List<EObject> expected = new ArrayList<>();
+        for(Iterator<EObject> iter = testModelProxy.getEObject().eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            if(eObject instanceof IBusinessActor || eObject instanceof IBusinessRole) {
+                expected.add(eObject);
+            }
+        }
+        
+        // Results are in model tree order whatever the order of the selectors
+        for(String selector : new String[] { "business-actor, business-role", "business-role, business-actor" }) {
+            List<EObject> actual = testModelProxy.find(selector).stream().map(EObjectProxy::getEObject).toList();
+            assertEquals(expected, actual);
+        }
+    }
+    
     @Test
     public void find_Selector_IDs() {
         ArchimateModelProxy testModelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
@@ -173,6 +218,30 @@ public class ArchimateModelProxyTests extends EObjectProxyTests {
         // Test an empty Id
         assertTrue(testModelProxy.find("#").isEmpty());
     }
+    
+    @Test
+    public void findByProperty() {
+        ArchimateElementProxy actor = testProxy.createElement("business-actor", "Actor");
+        ArchimateElementProxy role = testProxy.createElement("business-role", "Role");
+        
+        actor.prop("CMDB-ID", "1");
+        role.prop("CMDB-ID", "2");
+        
+        assertEquals(1, testProxy.findByProperty("CMDB-ID", "1").size());
+        assertEquals(actor, testProxy.findByProperty("CMDB-ID", "1").first());
+        assertEquals(2, testProxy.findByProperty("CMDB-ID").size());
+        assertTrue(testProxy.findByProperty("CMDB-ID", "3").isEmpty());
+        assertTrue(testProxy.findByProperty("Bogus").isEmpty());
+        
+        // Changed value
+        role.prop("CMDB-ID", "1");
+        assertEquals(2, testProxy.findByProperty("CMDB-ID", "1").size());
+        
+        // Removed property
+        actor.removeProp("CMDB-ID");
+        assertEquals(1, testProxy.findByProperty("CMDB-ID", "1").size());
+        assertEquals(role, testProxy.findByProperty("CMDB-ID", "1").first());
+    }
 
     @Test
     public void attr_Purpose() {
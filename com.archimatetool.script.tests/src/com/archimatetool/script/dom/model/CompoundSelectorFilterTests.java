@@ -0,0 +1,205 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModelArchimateObject;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IProperty;
+
+
+/**
+ * CompoundSelectorFilter Tests
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class CompoundSelectorFilterTests {
+
+    private IArchimateModel model;
+    private IFolder folder;
+    private IArchimateElement actor1, actor2, role;
+    
+    @BeforeEach
+    public void runOnceBeforeEachTest() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        ModelIndex.get(model); // Index objects in the order that they are added
+        
+        actor1 = createElement(IArchimateFactory.eINSTANCE.createBusinessActor(), "a1", "Actor 1");
+        actor2 = createElement(IArchimateFactory.eINSTANCE.createBusinessActor(), "a2", "Actor 2");
+        role = createElement(IArchimateFactory.eINSTANCE.createBusinessRole(), "r1", "Role");
+        
+        folder = IArchimateFactory.eINSTANCE.createFolder();
+        folder.setName("Sub Folder");
+        IFolder parent = model.getDefaultFolderForObject(actor1);
+        parent.getFolders().add(folder);
+        
+        parent.getElements().add(actor1);
+        folder.getElements().add(actor2);
+        folder.getElements().add(role);
+        
+        addProperty(actor1, "Owner", "IT Department");
+        addProperty(actor2, "Owner", "Sales");
+        addProperty(role, "name", "Property Name");
+    }
+    
+    @Test
+    public void isCompoundSelector() {
+        assertTrue(CompoundSelectorFilter.isCompoundSelector("business-actor[name=Actor 1]"));
+        assertTrue(CompoundSelectorFilter.isCompoundSelector("folder > element"));
+        assertTrue(CompoundSelectorFilter.isCompoundSelector("element, view"));
+        assertTrue(CompoundSelectorFilter.isCompoundSelector("folder:has(element)"));
+        assertTrue(CompoundSelectorFilter.isCompoundSelector("[Owner]"));
+        
+        assertFalse(CompoundSelectorFilter.isCompoundSelector("business-actor"));
+        assertFalse(CompoundSelectorFilter.isCompoundSelector("*"));
+        assertFalse(CompoundSelectorFilter.isCompoundSelector(".Actor 1, [2]"));
+        assertFalse(CompoundSelectorFilter.isCompoundSelector("#id"));
+        assertFalse(CompoundSelectorFilter.isCompoundSelector("business-actor.Actor 1"));
+        assertFalse(CompoundSelectorFilter.isCompoundSelector(null));
+    }
+    
+    @Test
+    public void create_Invalid() {
+        assertNull(CompoundSelectorFilter.create("business-actor[name"));
+        assertNull(CompoundSelectorFilter.create("business-actor[]"));
+        assertNull(CompoundSelectorFilter.create("business-actor[name=a"));
+        assertNull(CompoundSelectorFilter.create("folder >"));
+        assertNull(CompoundSelectorFilter.create("element,"));
+        assertNull(CompoundSelectorFilter.create("folder:has(element"));
+        assertNull(CompoundSelectorFilter.create("element.name, view"));
+    }
+    
+    @Test
+    public void accept_Attributes() {
+        assertAccepts("business-actor[name=Actor 1]", actor1);
+        assertAccepts("business-actor[name='Actor 1']", actor1);
+        assertAccepts("element[name^=Actor]", actor1, actor2);
+        assertAccepts("element[name$=2]", actor2);
+        assertAccepts("element[name*=ol]", role);
+        assertAccepts("element[name!=Actor 1]", actor2, role);
+        assertAccepts("element[id=a2]", actor2);
+        assertAccepts("element[type=business-role]", role);
+    }
+    
+    @Test
+    public void accept_Properties() {
+        assertAccepts("[Owner]", actor1, actor2);
+        assertAccepts("element[Owner=Sales]", actor2);
+        assertAccepts("element[Owner^=IT]", actor1);
+        assertAccepts("element[Owner!=Sales]", actor1, role);
+        assertAccepts("element[prop:name=Property Name]", role);
+        assertAccepts("element[\"Owner\"=\"IT Department\"]", actor1);
+    }
+    
+    @Test
+    public void accept_Properties_DiagramComponent() {
+        IDiagramModelArchimateObject dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo.setArchimateElement(actor1);
+        
+        CompoundSelectorFilter filter = CompoundSelectorFilter.create("business-actor[Owner=IT Department]");
+        assertTrue(filter.accept(dmo));
+    }
+    
+    @Test
+    public void accept_Combinators() {
+        assertAccepts("folder > business-actor", actor1, actor2);
+        assertAccepts("folder[name='Sub Folder'] > element", actor2, role);
+        assertAccepts("folder[type=folder] folder element", actor2, role);
+        assertAccepts("folder > folder > business-role", role);
+        assertAccepts("folder[name=Bogus] element");
+    }
+    
+    @Test
+    public void accept_Union() {
+        assertAccepts("business-role, business-actor[Owner=Sales]", actor2, role);
+        assertAccepts("business-role,business-role", role);
+    }
+    
+    @Test
+    public void accept_Has() {
+        CompoundSelectorFilter filter = CompoundSelectorFilter.create("folder:has(business-role)");
+        assertTrue(filter.accept(folder));
+        assertTrue(filter.accept(folder.eContainer()));
+        assertFalse(filter.accept(model.getDefaultFolderForObject(IArchimateFactory.eINSTANCE.createApplicationComponent())));
+        
+        filter = CompoundSelectorFilter.create("folder:has(element[Owner=Sales], business-role)");
+        assertTrue(filter.accept(folder));
+    }
+    
+    @Test
+    public void getCandidates() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        assertEquals(List.of(actor2), CompoundSelectorFilter.create("element[id=a2][name=Bogus]").getCandidates(index));
+        assertEquals(List.of(actor1, actor2), CompoundSelectorFilter.create("folder > business-actor").getCandidates(index));
+        assertEquals(List.of(role, actor1, actor2), CompoundSelectorFilter.create("business-role, business-actor").getCandidates(index));
+        
+        assertEquals(List.of(actor2), CompoundSelectorFilter.create("element[Owner=Sales]").getCandidates(index));
+        assertEquals(List.of(actor1, actor2, role), CompoundSelectorFilter.create("[Owner], business-role").getCandidates(index));
+        
+        // Can't use the index
+        assertNull(CompoundSelectorFilter.create("business-role, [name^=A]").getCandidates(index));
+    }
+    
+    @Test
+    public void getFilter_CompoundSelector() {
+        assertNotNull(SelectorFilterFactory.getInstance().getFilter("element[Owner=Sales]").orElseThrow());
+        assertTrue(SelectorFilterFactory.getInstance().getFilter("element[Owner=Sales]").orElseThrow() instanceof CompoundSelectorFilter);
+        
+        // Invalid so treated as a class type
+        assertFalse(SelectorFilterFactory.getInstance().getFilter("element[Owner").orElseThrow() instanceof CompoundSelectorFilter);
+    }
+    
+    @Test
+    public void find_CompoundSelector() {
+        ArchimateModelProxy modelProxy = new ArchimateModelProxy(model);
+        
+        assertEquals(2, modelProxy.find("element[Owner]").size());
+        assertEquals(1, modelProxy.find("business-actor[Owner^=Sa]").size());
+        assertEquals(2, modelProxy.find("folder > folder > element").size());
+        assertEquals(1, modelProxy.find("folder[name='Sub Folder']").size());
+        assertEquals(1, modelProxy.find("element[id=r1]").size());
+        assertEquals(0, modelProxy.find("element[id=bogus]").size());
+    }
+    
+    private void assertAccepts(String selector, EObject... expected) {
+        CompoundSelectorFilter filter = CompoundSelectorFilter.create(selector);
+        assertNotNull(filter, selector);
+        
+        for(EObject eObject : List.of(actor1, actor2, role)) {
+            assertEquals(List.of(expected).contains(eObject), filter.accept(eObject), selector + " " + eObject);
+        }
+    }
+    
+    private IArchimateElement createElement(IArchimateElement element, String id, String name) {
+        element.setId(id);
+        element.setName(name);
+        return element;
+    }
+    
+    private void addProperty(IArchimateElement element, String key, String value) {
+        IProperty property = IArchimateFactory.eINSTANCE.createProperty();
+        property.setKey(key);
+        property.setValue(value);
+        element.getProperties().add(property);
+    }
+}
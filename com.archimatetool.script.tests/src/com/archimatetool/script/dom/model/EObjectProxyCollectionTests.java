@@ -9,20 +9,32 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
 import org.eclipse.emf.ecore.EObject;
 import org.junit.jupiter.api.Test;
 
+import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IAssociationRelationship;
 import com.archimatetool.model.IBusinessActor;
 import com.archimatetool.model.IBusinessRole;
+import com.archimatetool.model.IDiagramModelArchimateComponent;
 import com.archimatetool.model.IDiagramModelArchimateObject;
 import com.archimatetool.model.IDiagramModelGroup;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.util.ArchimateModelUtils;
+import com.archimatetool.script.ScriptCancelledException;
+import com.archimatetool.script.ScriptRunContext;
 import com.archimatetool.script.TestFiles;
+import com.archimatetool.script.commands.DeleteObjectsCommand;
 
 
 /**
@@ -141,6 +153,232 @@ public class EObjectProxyCollectionTests {
         assertEquals(1, c.size());
     }
 
+    @Test
+    public void find_Selector() {
+        ArchimateModelProxy modelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        EObjectProxyCollection collection = new EObjectProxyCollection();
+        
+        // Get an Archimate Diagram
+        collection.add(EObjectProxy.get(ArchimateModelUtils.getObjectByID(modelProxy.getEObject(), "4056")));
+        
+        // Same as filtering all of the contents
+        assertEquals(collection.find().filter("element"), collection.find("element"));
+        assertEquals(collection.find().filter("relation"), collection.find("relation"));
+        
+        // Unique selector stops at the first match
+        EObjectProxyCollection c = collection.find("#4116");
+        assertEquals(1, c.size());
+        assertEquals("4116", c.first().getId());
+        
+        // Invalid selector
+        assertTrue(collection.find("").isEmpty());
+    }
+    
+    @Test
+    public void has_Any_None_Count() {
+        ArchimateModelProxy modelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        EObjectProxyCollection collection = new EObjectProxyCollection();
+        
+        // An Archimate Diagram, a Group inside the Diagram and an element
+        EObjectProxy diagram = EObjectProxy.get(ArchimateModelUtils.getObjectByID(modelProxy.getEObject(), "4056"));
+        collection.add(diagram);
+        collection.add(EObjectProxy.get(ArchimateModelUtils.getObjectByID(modelProxy.getEObject(), "4116")));
+        collection.add(EObjectProxy.get(IArchimateFactory.eINSTANCE.createBusinessRole()));
+        
+        // has
+        EObjectProxyCollection c = collection.has("relation");
+        assertEquals(1, c.size());
+        assertSame(diagram, c.first());
+        assertEquals(2, collection.has("element").size());
+        assertTrue(collection.has("folder").isEmpty());
+        assertTrue(collection.has("").isEmpty());
+        
+        // any and none
+        assertTrue(collection.any("element"));
+        assertFalse(collection.none("element"));
+        assertFalse(collection.any("folder"));
+        assertTrue(collection.none("folder"));
+        assertTrue(collection.any("#4116"));
+        
+        // count is the size of find() and counts objects in both the Diagram and the Group once
+        assertEquals(collection.find("element").size(), collection.count("element"));
+        assertEquals(collection.find("relation").size(), collection.count("relation"));
+        assertEquals(collection.find("*").size(), collection.count("*"));
+        assertEquals(1, collection.count("#4116"));
+        assertEquals(0, collection.count("folder"));
+        assertEquals(0, collection.count(""));
+    }
+    
+    @Test
+    public void rels_NoDuplicates() {
+        EObjectProxyCollection collection = new EObjectProxyCollection();
+        
+        IBusinessActor actor = IArchimateFactory.eINSTANCE.createBusinessActor();
+        IBusinessRole role = IArchimateFactory.eINSTANCE.createBusinessRole();
+        IAssociationRelationship relation = IArchimateFactory.eINSTANCE.createAssociationRelationship();
+        relation.connect(actor, role);
+        
+        collection.add(EObjectProxy.get(actor));
+        collection.add(EObjectProxy.get(role));
+        
+        // The relationship is in the relationships of both elements but is only added once
+        EObjectProxyCollection rels = collection.rels();
+        assertEquals(1, rels.size());
+        assertSame(EObjectProxy.get(relation), rels.first());
+        
+        assertEquals(1, collection.rels("association-relationship").size());
+        assertEquals(0, collection.rels("serving-relationship").size());
+        assertEquals(1, collection.outRels("relation").size());
+        assertEquals(1, collection.inRels("relation").size());
+        
+        assertEquals(2, rels.ends().size());
+        assertEquals(1, rels.ends("business-actor").size());
+        assertSame(EObjectProxy.get(actor), rels.sourceEnds().first());
+        assertSame(EObjectProxy.get(role), rels.targetEnds().first());
+        assertTrue(rels.targetEnds("business-actor").isEmpty());
+    }
+
+    @Test
+    public void delete_Concepts() {
+        ArchimateModelProxy modelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        
+        EObjectProxyCollection collection = modelProxy.find("element");
+        assertEquals(120, collection.size());
+        
+        collection.delete();
+        
+        // All elements, relationships and diagram references should be deleted
+        assertEquals(0, modelProxy.find("concept").size());
+        assertEquals(17, modelProxy.find("view").size());
+        
+        for(Iterator<EObject> iter = modelProxy.getEObject().eAllContents(); iter.hasNext();) {
+            assertFalse(iter.next() instanceof IDiagramModelArchimateComponent);
+        }
+    }
+    
+    @Test
+    public void delete_Mixed() {
+        ArchimateModelProxy modelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        
+        EObjectProxyCollection collection = modelProxy.find("business-actor");
+        collection.add(modelProxy.find("view").first());
+        
+        collection.delete();
+        
+        assertEquals(0, modelProxy.find("business-actor").size());
+        assertEquals(16, modelProxy.find("view").size());
+    }
+    
+    @Test
+    public void delete_Mixed_OneCommand() {
+        ArchimateModelProxy modelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        IArchimateModel model = modelProxy.getEObject();
+        
+        List<EObject> contents = new ArrayList<>();
+        model.eAllContents().forEachRemaining(contents::add);
+        
+        // Concepts, a view, and diagram components that are also deleted with their concepts
+        List<EObject> objects = new ArrayList<>();
+        for(EObjectProxy proxy : modelProxy.find("business-actor")) {
+            objects.add(proxy.getEObject());
+            for(EObjectProxy ref : ((ArchimateConceptProxy)proxy).objectRefs()) {
+                objects.add(ref.getEObject());
+            }
+        }
+        objects.add(modelProxy.find("view").first().getEObject());
+        
+        // Each object is deleted only once
+        List<EObject> toDelete = ModelUtil.getObjectsToDelete(model, objects);
+        assertEquals(toDelete.size(), new HashSet<>(toDelete).size());
+        assertTrue(toDelete.containsAll(objects));
+        
+        DeleteObjectsCommand cmd = new DeleteObjectsCommand(model, toDelete);
+        cmd.perform();
+        
+        assertEquals(0, modelProxy.find("business-actor").size());
+        assertEquals(16, modelProxy.find("view").size());
+        
+        // One undo puts everything back in the same place
+        cmd.undo();
+        
+        List<EObject> undoneContents = new ArrayList<>();
+        model.eAllContents().forEachRemaining(undoneContents::add);
+        assertEquals(contents, undoneContents);
+    }
+    
+    @Test
+    public void delete_Undo() {
+        ArchimateModelProxy modelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        IArchimateModel model = modelProxy.getEObject();
+        
+        List<EObject> contents = new ArrayList<>();
+        model.eAllContents().forEachRemaining(contents::add);
+        
+        List<IArchimateConcept> concepts = new ArrayList<>();
+        for(EObjectProxy proxy : modelProxy.find("business-actor")) {
+            concepts.add((IArchimateConcept)proxy.getEObject());
+        }
+        
+        List<Integer> relationsCount = new ArrayList<>();
+        for(IArchimateConcept concept : concepts) {
+            relationsCount.add(concept.getSourceRelationships().size() + concept.getTargetRelationships().size());
+        }
+        
+        DeleteObjectsCommand cmd = new DeleteObjectsCommand(model, ModelUtil.getObjectsToDelete(model, concepts));
+        
+        for(int i = 0; i < 2; i++) {
+            if(i == 0) {
+                cmd.perform();
+            }
+            else {
+                cmd.redo();
+            }
+            
+            assertEquals(0, modelProxy.find("business-actor").size());
+            
+            cmd.undo();
+            
+            // Everything should be back in the same place
+            List<EObject> undoneContents = new ArrayList<>();
+            model.eAllContents().forEachRemaining(undoneContents::add);
+            assertEquals(contents, undoneContents);
+            
+            for(int j = 0; j < concepts.size(); j++) {
+                IArchimateConcept concept = concepts.get(j);
+                assertEquals(relationsCount.get(j), concept.getSourceRelationships().size() + concept.getTargetRelationships().size());
+            }
+        }
+    }
+    
+    @Test
+    public void each_Find_Filter_Cancelled() {
+        ArchimateModelProxy modelProxy = TestsHelper.loadTestArchimateModelProxy(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        EObjectProxyCollection collection = modelProxy.find("element");
+        
+        ScriptRunContext context = ScriptRunContext.start("test");
+        
+        try {
+            List<EObjectProxy> visited = new ArrayList<>();
+            collection.each(visited::add);
+            assertEquals(collection.size(), visited.size());
+            
+            // Cancelled while iterating so stop at the next object
+            visited.clear();
+            assertThrows(ScriptCancelledException.class, () -> collection.each(object -> {
+                visited.add(object);
+                context.cancel();
+            }));
+            assertEquals(1, visited.size());
+            
+            assertThrows(ScriptCancelledException.class, () -> collection.find("*"));
+            assertThrows(ScriptCancelledException.class, () -> collection.filter("business-actor"));
+            assertThrows(ScriptCancelledException.class, () -> modelProxy.find("element"));
+        }
+        finally {
+            ScriptRunContext.end();
+        }
+    }
+    
     @Test
     public void cloneTest() {
         EObjectProxyCollection collection = new EObjectProxyCollection();
@@ -52,6 +52,11 @@ public abstract class EObjectProxyTests implements IModelConstants {
         assertSame(getTestEObject(), getTestProxy().getEObject());
     }
 
+    @Test
+    public void get_ReturnsSameProxy() {
+        assertSame(EObjectProxy.get(getTestEObject()), EObjectProxy.get(getTestEObject()));
+    }
+
     @Test
     public void getReferencedEObject() {
         assertSame(getTestProxy().getEObject(), getTestProxy().getReferencedEObject());
@@ -60,6 +65,7 @@ public abstract class EObjectProxyTests implements IModelConstants {
     @Test
     public void getModel() {
         assertNotNull(getTestProxy().getModel());
+        assertSame(getTestProxy().getModel(), getTestProxy().getModel());
     }
     
     @Test
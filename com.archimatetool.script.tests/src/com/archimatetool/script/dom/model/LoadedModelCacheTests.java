@@ -0,0 +1,79 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.script.TestFiles;
+
+
+/**
+ * LoadedModelCache Tests
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class LoadedModelCacheTests {
+    
+    @AfterEach
+    public void runOnceAfterEachTest() {
+        LoadedModelCache.setEnabled(false);
+    }
+    
+    @Test
+    public void load_NotCached_WhenDisabled() throws Exception {
+        IArchimateModel model = LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        assertNotNull(model);
+        assertNotSame(model, LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE));
+    }
+    
+    @Test
+    public void load_Cached_WhenEnabled() throws Exception {
+        LoadedModelCache.setEnabled(true);
+        
+        IArchimateModel model = LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        assertNotNull(model);
+        assertSame(model, LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE));
+    }
+    
+    @Test
+    public void load_LoadedAgain_WhenModelChanged() throws Exception {
+        LoadedModelCache.setEnabled(true);
+        
+        IArchimateModel model = LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        model.getFolder(FolderType.BUSINESS).getElements().get(0).setName("Changed");
+        
+        assertNotSame(model, LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE));
+    }
+    
+    @Test
+    public void load_Cached_WhenModelChangedAndShared() throws Exception {
+        LoadedModelCache.setEnabled(true, true);
+        
+        IArchimateModel model = LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        model.getFolder(FolderType.BUSINESS).getElements().get(0).setName("Changed");
+        
+        assertSame(model, LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE));
+    }
+    
+    @Test
+    public void setEnabled_False_ClearsCache() throws Exception {
+        LoadedModelCache.setEnabled(true);
+        IArchimateModel model = LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        
+        LoadedModelCache.setEnabled(false);
+        LoadedModelCache.setEnabled(true);
+        
+        assertNotSame(model, LoadedModelCache.load(TestFiles.TEST_MODEL_FILE_ARCHISURANCE));
+    }
+}
@@ -0,0 +1,388 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IDiagramModelArchimateComponent;
+import com.archimatetool.model.IDiagramModelArchimateObject;
+import com.archimatetool.model.IDiagramModelReference;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.script.TestFiles;
+
+
+/**
+ * ModelIndex Tests
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class ModelIndexTests {
+
+    private IArchimateModel model;
+    
+    @BeforeEach
+    public void runOnceBeforeEachTest() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+    }
+    
+    @Test
+    public void get_ReturnsSameIndex() {
+        assertSame(ModelIndex.get(model), ModelIndex.get(model));
+    }
+    
+    @Test
+    public void getObjectById_ExistingObjects() {
+        IArchimateModel model = TestFiles.loadTestArchimateModel(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        ModelIndex index = ModelIndex.get(model);
+        
+        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            if(eObject instanceof IIdentifier identifier) {
+                assertSame(eObject, index.getObjectById(identifier.getId()));
+            }
+        }
+        
+        assertNull(index.getObjectById("bogusId"));
+        assertNull(index.getObjectById(null));
+        assertNull(index.getObjectById(model.getId()));
+    }
+    
+    @Test
+    public void getObjectById_AddedAndRemovedObjects() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element.setId("e1");
+        assertNull(index.getObjectById(element.getId()));
+        
+        model.getDefaultFolderForObject(element).getElements().add(element);
+        assertSame(element, index.getObjectById(element.getId()));
+        
+        model.getDefaultFolderForObject(element).getElements().remove(element);
+        assertNull(index.getObjectById(element.getId()));
+    }
+    
+    @Test
+    public void getObjectById_AddedAndRemovedFolder() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IFolder folder = IArchimateFactory.eINSTANCE.createFolder();
+        folder.setId("f1");
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element.setId("e1");
+        folder.getElements().add(element);
+        
+        // Adding the folder should index its contents
+        model.getDefaultFolderForObject(element).getFolders().add(folder);
+        assertSame(folder, index.getObjectById(folder.getId()));
+        assertSame(element, index.getObjectById(element.getId()));
+        
+        // Removing the folder should remove its contents
+        model.getDefaultFolderForObject(element).getFolders().remove(folder);
+        assertNull(index.getObjectById(folder.getId()));
+        assertNull(index.getObjectById(element.getId()));
+    }
+    
+    @Test
+    public void getObjectById_DuplicateIds() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element1 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element1.setId("e1");
+        IArchimateElement element2 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element2.setId("e1");
+        IFolder parent = model.getDefaultFolderForObject(element1);
+        parent.getElements().add(element1);
+        parent.getElements().add(element2);
+        
+        // The first one is kept
+        assertSame(element1, index.getObjectById("e1"));
+        
+        // Removing the first one leaves the second one
+        parent.getElements().remove(element1);
+        assertSame(element2, index.getObjectById("e1"));
+        
+        parent.getElements().add(element1);
+        assertSame(element2, index.getObjectById("e1"));
+        
+        // Changing the id of the second one leaves the first one
+        element2.setId("e2");
+        assertSame(element1, index.getObjectById("e1"));
+        assertSame(element2, index.getObjectById("e2"));
+        
+        parent.getElements().remove(element1);
+        assertNull(index.getObjectById("e1"));
+    }
+    
+    @Test
+    public void getObjectById_MovedObject() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element.setId("e1");
+        IFolder parent = model.getDefaultFolderForObject(element);
+        parent.getElements().add(element);
+        
+        IFolder folder = IArchimateFactory.eINSTANCE.createFolder();
+        parent.getFolders().add(folder);
+        folder.getElements().add(element);
+        
+        assertSame(element, index.getObjectById(element.getId()));
+    }
+    
+    @Test
+    public void getObjectById_IdChanged() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        element.setId("e1");
+        model.getDefaultFolderForObject(element).getElements().add(element);
+        
+        String oldId = element.getId();
+        element.setId("newId");
+        assertNull(index.getObjectById(oldId));
+        assertSame(element, index.getObjectById("newId"));
+    }
+    
+    @Test
+    public void getObjectsByType_ExistingObjects() {
+        IArchimateModel model = TestFiles.loadTestArchimateModel(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        ModelIndex index = ModelIndex.get(model);
+        
+        assertEquals(5, index.getObjectsByType(IArchimatePackage.eINSTANCE.getBusinessRole()).size());
+        assertEquals(26, index.getObjectsByType(IArchimatePackage.eINSTANCE.getFolder()).size());
+        assertEquals(296, index.getObjectsByType(IArchimatePackage.eINSTANCE.getArchimateConcept()).size());
+        assertEquals(120, index.getObjectsByType(IArchimatePackage.eINSTANCE.getArchimateElement()).size());
+        assertEquals(176, index.getObjectsByType(IArchimatePackage.eINSTANCE.getArchimateRelationship()).size());
+        assertEquals(17, index.getObjectsByType(IArchimatePackage.eINSTANCE.getDiagramModel()).size());
+        
+        // Diagram components are not indexed by type
+        assertTrue(index.getObjectsByType(IArchimatePackage.eINSTANCE.getDiagramModelArchimateObject()).isEmpty());
+        
+        assertTrue(index.getObjectsByType(null).isEmpty());
+    }
+    
+    @Test
+    public void getObjectsByType_AddedAndRemovedObjects() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element1 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        IArchimateElement element2 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        IArchimateElement element3 = IArchimateFactory.eINSTANCE.createBusinessRole();
+        IFolder parent = model.getDefaultFolderForObject(element1);
+        parent.getElements().add(element1);
+        parent.getElements().add(element2);
+        parent.getElements().add(element3);
+        
+        List<EObject> list = index.getObjectsByType(IArchimatePackage.eINSTANCE.getBusinessActor());
+        assertEquals(List.of(element1, element2), list);
+        
+        list = index.getObjectsByType(IArchimatePackage.eINSTANCE.getArchimateElement());
+        assertEquals(List.of(element1, element2, element3), list);
+        
+        parent.getElements().remove(element1);
+        list = index.getObjectsByType(IArchimatePackage.eINSTANCE.getBusinessActor());
+        assertEquals(List.of(element2), list);
+        
+        list = index.getObjectsByType(IArchimatePackage.eINSTANCE.getArchimateElement());
+        assertFalse(list.contains(element1));
+    }
+    
+    @Test
+    public void getObjectsByType_TreeOrder() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element1 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        IArchimateElement element2 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        IArchimateElement element3 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        IFolder parent = model.getDefaultFolderForObject(element1);
+        parent.getElements().add(element1);
+        parent.getElements().add(element2);
+        parent.getElements().add(element3);
+        
+        // Moved in the list
+        parent.getElements().move(0, element3);
+        assertEquals(List.of(element3, element1, element2), index.getObjectsByType(IArchimatePackage.eINSTANCE.getBusinessActor()));
+        
+        // Removed and added back at its position, as undo does
+        parent.getElements().remove(element3);
+        parent.getElements().add(0, element3);
+        assertEquals(List.of(element3, element1, element2), index.getObjectsByType(IArchimatePackage.eINSTANCE.getBusinessActor()));
+        assertEquals(List.of(element3, element1, element2), index.getObjectsByType(IArchimatePackage.eINSTANCE.getArchimateElement()));
+        
+        // Properties added in a different order to the tree order
+        addProperty(element2, "key", "value");
+        addProperty(element1, "key", "value");
+        assertEquals(List.of(element1, element2), index.getObjectsByProperty("key", "value"));
+        assertEquals(List.of(element1, element2), index.getObjectsByProperty("key", null));
+    }
+    
+    @Test
+    public void getObjectsByProperty() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element1 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        IArchimateElement element2 = IArchimateFactory.eINSTANCE.createBusinessRole();
+        IFolder parent = model.getDefaultFolderForObject(element1);
+        parent.getElements().add(element1);
+        parent.getElements().add(element2);
+        
+        IProperty property1 = addProperty(element1, "key", "value1");
+        IProperty property2 = addProperty(element2, "key", "value2");
+        
+        assertEquals(List.of(element1), index.getObjectsByProperty("key", "value1"));
+        assertEquals(List.of(element2), index.getObjectsByProperty("key", "value2"));
+        assertEquals(List.of(element1, element2), index.getObjectsByProperty("key", null));
+        assertTrue(index.getObjectsByProperty("key", "bogus").isEmpty());
+        assertTrue(index.getObjectsByProperty("bogus", null).isEmpty());
+        assertTrue(index.getObjectsByProperty(null, null).isEmpty());
+        
+        // Value changed
+        property2.setValue("value1");
+        assertEquals(List.of(element1, element2), index.getObjectsByProperty("key", "value1"));
+        assertTrue(index.getObjectsByProperty("key", "value2").isEmpty());
+        
+        // Key changed
+        property1.setKey("key2");
+        assertEquals(List.of(element2), index.getObjectsByProperty("key", "value1"));
+        assertEquals(List.of(element1), index.getObjectsByProperty("key2", "value1"));
+        
+        // Property removed
+        element2.getProperties().remove(property2);
+        assertTrue(index.getObjectsByProperty("key", null).isEmpty());
+        
+        // Owner removed
+        parent.getElements().remove(element1);
+        assertTrue(index.getObjectsByProperty("key2", "value1").isEmpty());
+        
+        // Owner added with properties
+        parent.getElements().add(element1);
+        assertEquals(List.of(element1), index.getObjectsByProperty("key2", "value1"));
+    }
+    
+    @Test
+    public void getObjectsByProperty_DuplicateProperties() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        model.getDefaultFolderForObject(element).getElements().add(element);
+        
+        IProperty property1 = addProperty(element, "key", "value");
+        addProperty(element, "key", "value");
+        assertEquals(List.of(element), index.getObjectsByProperty("key", "value"));
+        
+        // Still has the other property
+        element.getProperties().remove(property1);
+        assertEquals(List.of(element), index.getObjectsByProperty("key", "value"));
+    }
+    
+    @Test
+    public void getObjectsByProperty_AnyValue() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element = IArchimateFactory.eINSTANCE.createBusinessActor();
+        model.getDefaultFolderForObject(element).getElements().add(element);
+        
+        IProperty property1 = addProperty(element, "key", "value1");
+        IProperty property2 = addProperty(element, "key", "value2");
+        assertEquals(List.of(element), index.getObjectsByProperty("key", null));
+        
+        // Still has a property with the key
+        element.getProperties().remove(property1);
+        assertEquals(List.of(element), index.getObjectsByProperty("key", null));
+        assertTrue(index.getObjectsByProperty("key", "value1").isEmpty());
+        
+        // Value changed
+        property2.setValue("value3");
+        assertEquals(List.of(element), index.getObjectsByProperty("key", null));
+        
+        // Key changed
+        property2.setKey("key2");
+        assertTrue(index.getObjectsByProperty("key", null).isEmpty());
+        assertEquals(List.of(element), index.getObjectsByProperty("key2", null));
+    }
+    
+    @Test
+    public void getReferencingComponents_ExistingObjects() {
+        IArchimateModel model = TestFiles.loadTestArchimateModel(TestFiles.TEST_MODEL_FILE_ARCHISURANCE);
+        ModelIndex index = ModelIndex.get(model);
+        
+        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            if(eObject instanceof IDiagramModelArchimateComponent dmc) {
+                assertTrue(index.getReferencingComponents(dmc.getArchimateConcept()).contains(dmc));
+            }
+            else if(eObject instanceof IDiagramModelReference ref) {
+                assertTrue(index.getReferencingComponents(ref.getReferencedModel()).contains(ref));
+            }
+        }
+        
+        assertTrue(index.getReferencingComponents(null).isEmpty());
+    }
+    
+    @Test
+    public void getReferencingComponents_AddedChangedAndRemoved() {
+        ModelIndex index = ModelIndex.get(model);
+        
+        IArchimateElement element1 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        IArchimateElement element2 = IArchimateFactory.eINSTANCE.createBusinessActor();
+        model.getDefaultFolderForObject(element1).getElements().add(element1);
+        model.getDefaultFolderForObject(element2).getElements().add(element2);
+        
+        IArchimateDiagramModel dm = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        model.getDefaultFolderForObject(dm).getElements().add(dm);
+        
+        IDiagramModelArchimateObject dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo.setArchimateElement(element1);
+        dm.getChildren().add(dmo);
+        assertEquals(List.of(dmo), index.getReferencingComponents(element1));
+        
+        // Changed referenced element
+        dmo.setArchimateElement(element2);
+        assertTrue(index.getReferencingComponents(element1).isEmpty());
+        assertEquals(List.of(dmo), index.getReferencingComponents(element2));
+        
+        // Diagram model reference
+        IDiagramModelReference ref = IArchimateFactory.eINSTANCE.createDiagramModelReference();
+        ref.setReferencedModel(dm);
+        dm.getChildren().add(ref);
+        assertEquals(List.of(ref), index.getReferencingComponents(dm));
+        
+        // Removed
+        dm.getChildren().remove(dmo);
+        dm.getChildren().remove(ref);
+        assertTrue(index.getReferencingComponents(element2).isEmpty());
+        assertTrue(index.getReferencingComponents(dm).isEmpty());
+    }
+    
+    private IProperty addProperty(IArchimateElement element, String key, String value) {
+        IProperty property = IArchimateFactory.eINSTANCE.createProperty();
+        property.setKey(key);
+        property.setValue(value);
+        element.getProperties().add(property);
+        return property;
+    }
+}
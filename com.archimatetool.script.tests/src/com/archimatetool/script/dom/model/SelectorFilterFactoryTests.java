@@ -5,14 +5,18 @@
  */
 package com.archimatetool.script.dom.model;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelArchimateConnection;
 import com.archimatetool.model.IDiagramModelArchimateObject;
@@ -29,6 +33,15 @@ import com.archimatetool.script.dom.model.SelectorFilterFactory.ISelectorFilter;
 @SuppressWarnings("nls")
 public class SelectorFilterFactoryTests implements IModelConstants {
     
+    @Test
+    public void getFilter_IsCached() {
+        ISelectorFilter filter = SelectorFilterFactory.getInstance().getFilter("business-actor").orElseThrow();
+        assertSame(filter, SelectorFilterFactory.getInstance().getFilter("business-actor").orElseThrow());
+        
+        assertTrue(SelectorFilterFactory.getInstance().getFilter(null).isEmpty());
+        assertTrue(SelectorFilterFactory.getInstance().getFilter("").isEmpty());
+    }
+    
     @Test
     public void accept_All() {
         ISelectorFilter filter = SelectorFilterFactory.getInstance().getFilter("*").orElseThrow();
@@ -259,4 +272,31 @@ public class SelectorFilterFactoryTests implements IModelConstants {
         filter = SelectorFilterFactory.getInstance().getFilter(DIAGRAM_MODEL_LEGEND).orElseThrow();
         assertTrue(filter.accept(note));
     }
+    
+    @Test
+    public void getTypeClass() {
+        SelectorFilterFactory factory = SelectorFilterFactory.getInstance();
+        
+        assertEquals(IArchimatePackage.eINSTANCE.getArchimateConcept(), factory.getTypeClass(CONCEPT));
+        assertEquals(IArchimatePackage.eINSTANCE.getArchimateElement(), factory.getTypeClass(ELEMENT));
+        assertEquals(IArchimatePackage.eINSTANCE.getArchimateRelationship(), factory.getTypeClass(RELATION));
+        assertEquals(IArchimatePackage.eINSTANCE.getArchimateRelationship(), factory.getTypeClass(RELATIONSHIP));
+        assertEquals(IArchimatePackage.eINSTANCE.getDiagramModel(), factory.getTypeClass(VIEW));
+        assertEquals(IArchimatePackage.eINSTANCE.getBusinessActor(), factory.getTypeClass("business-actor"));
+        assertEquals(IArchimatePackage.eINSTANCE.getFolder(), factory.getTypeClass("folder"));
+        
+        assertNull(factory.getTypeClass(null));
+        assertNull(factory.getTypeClass(""));
+        assertNull(factory.getTypeClass("*"));
+        assertNull(factory.getTypeClass("#123"));
+        assertNull(factory.getTypeClass(".name"));
+        assertNull(factory.getTypeClass("business-actor.name"));
+        assertNull(factory.getTypeClass(DIAGRAM_MODEL_LEGEND));
+        assertNull(factory.getTypeClass("garbage"));
+        
+        // Abstract classes
+        assertNull(factory.getTypeClass("business-element"));
+        assertNull(factory.getTypeClass("archimate-element"));
+        assertNull(factory.getTypeClass("diagram-model-object"));
+    }
 }
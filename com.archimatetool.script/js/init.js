@@ -9,8 +9,20 @@ jArchi.model = jArchiModel;
 
 jArchi.fs = jArchiFS;
 
+// Run a function as a batch of changes. The UI is not updated and model lookups are cached until the function returns
+jArchi.batch = function(fn) {
+	var CommandHandler = Java.type("com.archimatetool.script.commands.CommandHandler");
+	CommandHandler.beginBatch();
+	try {
+		return fn();
+	}
+	finally {
+		CommandHandler.endBatch();
+	}
+};
+
 jArchi.process = {
-	engine: Java.type("java.lang.System").getProperty("script.engine"),
+	engine: Java.type("com.archimatetool.script.ScriptRunContext").getCurrent().getEngineName(),
 	argv: Java.type("org.eclipse.core.runtime.Platform").getApplicationArgs(),
 	platform: Java.type("org.eclipse.core.runtime.Platform").getOS(),
 	release: {
@@ -8,6 +8,7 @@ package com.archimatetool.script;
 import java.io.File;
 
 import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.osgi.framework.BundleContext;
 
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.script.preferences.IPreferenceConstants;
@@ -37,6 +38,21 @@ public class ArchiScriptPlugin extends AbstractUIPlugin {
         instance = this;
     }
     
+    @Override
+    public void start(BundleContext context) throws Exception {
+        super.start(context);
+        
+        // Prepare script engines in the background so that the first script run doesn't have to wait for an engine to start
+        Thread thread = new Thread(() -> {
+            for(IScriptEngineProvider provider : IScriptEngineProvider.INSTANCE.getInstalledProviders()) {
+                provider.prepareScriptEngines();
+            }
+        }, "Prepare Script Engines"); //$NON-NLS-1$
+        
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
     /**
      * @return The folder where we store user scripts
      */
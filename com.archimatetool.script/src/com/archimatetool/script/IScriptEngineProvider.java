@@ -61,6 +61,13 @@ public interface IScriptEngineProvider {
      */
     Optional<ScriptEngine> createScriptEngine();
     
+    /**
+     * Prepare script engines in advance so that createScriptEngine() returns quickly.
+     * This is called on a background thread when the plug-in starts. The default does nothing.
+     */
+    default void prepareScriptEngines() {
+    }
+    
     /**
      * @return The supported file extensions (with leading ".").
      *         The first in the list will be used as the default when creating new files.
@@ -10,7 +10,10 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import javax.script.ScriptEngine;
@@ -19,6 +22,7 @@ import javax.script.ScriptException;
 
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.window.Window;
 import org.eclipse.swt.dnd.Clipboard;
@@ -27,11 +31,14 @@ import org.eclipse.swt.dnd.Transfer;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.PlatformUI;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
 import org.osgi.framework.Bundle;
 
 import com.archimatetool.editor.utils.PlatformUtils;
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.script.preferences.IPreferenceConstants;
+import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
 
 
 /**
@@ -42,6 +49,27 @@ public class JSProvider implements IScriptEngineProvider {
     
     public static final String ID = "com.archimatetool.script.provider.js";
     
+    // Polyglot engine shared by all Graal script engines so that parsed and compiled code is reused between script runs
+    private static Engine sharedEngine;
+    private static Map<String, String> sharedEngineOptions;
+    
+    // The number of script engines created from each shared polyglot engine that haven't been run or discarded yet.
+    // When the options change a new shared engine is created and the old one is closed when its count reaches zero.
+    private static Map<Engine, Integer> sharedEngineUsers = new IdentityHashMap<>();
+    
+    static {
+        // GraalJSScriptEngine reads this once when its class is loaded to set up Nashorn compatible host access for all contexts.
+        // It is not a polyglot engine option so it has to be a System property, but it is the same for every script run.
+        System.setProperty("polyglot.js.nashorn-compat", "true");
+    }
+    
+    // Number of engines to create in advance
+    private static final int ENGINE_POOL_SIZE = 1;
+    
+    // Engines created in the background so that a script run doesn't have to wait for the engine to start
+    private ScriptEnginePool enginePool = new ScriptEnginePool(ENGINE_POOL_SIZE, this::getEngineConfiguration,
+                                                                this::createWarmScriptEngine, JSProvider::releaseScriptEngine);
+    
     public static boolean isNashornInstalled() {
         return getNashornScriptEngineFactoryClass() != null;
     }
@@ -62,10 +90,33 @@ public class JSProvider implements IScriptEngineProvider {
     
     @Override
     public void run(File file, ScriptEngine engine) throws IOException, ScriptException {
+        try {
+            runScript(file, engine);
+        }
+        finally {
+            releaseScriptEngine(engine);
+        }
+    }
+    
+    private void runScript(File file, ScriptEngine engine) throws IOException, ScriptException {
+        RunReport.startPhase("init");
+        
         // Initialize jArchi using the provided init.js script
         URL initURL = ArchiScriptPlugin.getInstance().getBundle().getEntry("js/init.js");
-        try(InputStreamReader initReader = new InputStreamReader(initURL.openStream())) {
-            engine.eval(initReader);
+        
+        // If this is a Graal engine evaluate the cached Source so that the parsed code is reused
+        if(engine instanceof GraalJSScriptEngine graalEngine) {
+            try {
+                graalEngine.getPolyglotContext().eval(SourceCache.getSource(initURL, "init.js"));
+            }
+            catch(PolyglotException ex) {
+                throw new ScriptException(ex);
+            }
+        }
+        else {
+            try(InputStreamReader initReader = new InputStreamReader(initURL.openStream())) {
+                engine.eval(initReader);
+            }
         }
 
         // Normalize filename so that load() can run it
@@ -74,12 +125,73 @@ public class JSProvider implements IScriptEngineProvider {
         // Escape apostrophes to not conflict with the load('path') command
         scriptPath = scriptPath.replace("'", "\\\'");
 
+        // Profile the script if a profiler has been set for this run
+        ScriptProfiler profiler = ScriptRunContext.getCurrent().get(ScriptProfiler.class);
+        if(profiler != null && engine instanceof GraalJSScriptEngine graalEngine) {
+            profiler.start(graalEngine.getPolyglotEngine());
+        }
+        
         // Evaluate the script
-        engine.eval("load('" + scriptPath + "')");
+        RunReport.startPhase("script");
+        
+        try {
+            engine.eval("load('" + scriptPath + "')");
+        }
+        finally {
+            if(profiler != null) {
+                profiler.stop();
+            }
+        }
 	}
 
     @Override
     public Optional<ScriptEngine> createScriptEngine() {
+        // The debugger has to be set up when the engine is created so don't use an engine from the pool
+        if(isDebuggerEnabled()) {
+            return Optional.ofNullable(createNewScriptEngine(true));
+        }
+        
+        return enginePool.take();
+    }
+    
+    @Override
+    public void prepareScriptEngines() {
+        if(!isDebuggerEnabled()) {
+            enginePool.fill();
+        }
+    }
+    
+    /**
+     * @return A key for the preferences that are used when creating an engine
+     */
+    private String getEngineConfiguration() {
+        IPreferenceStore store = ArchiScriptPlugin.getInstance().getPreferenceStore();
+        return store.getInt(IPreferenceConstants.PREFS_JS_ENGINE) + "|" + getGraalEngineOptions();
+    }
+    
+    /**
+     * Create a new engine and evaluate an empty script so that the engine's context and global objects are created.
+     * This is called on a background thread when filling the pool.
+     */
+    private ScriptEngine createWarmScriptEngine() {
+        ScriptEngine engine = createNewScriptEngine(false);
+        
+        if(engine != null) {
+            try {
+                engine.eval("undefined");
+            }
+            catch(ScriptException ex) {
+                ex.printStackTrace();
+            }
+        }
+        
+        return engine;
+    }
+    
+    /**
+     * @param useDebugger If true set up the debugger if it is enabled in preferences. This must be called on the UI thread if true.
+     */
+    private ScriptEngine createNewScriptEngine(boolean useDebugger) {
         ScriptEngine engine = null;
         
         // If Nashorn is installed use the engine as set in user preferences
@@ -104,83 +216,145 @@ public class JSProvider implements IScriptEngineProvider {
                     }
                 }
                 // Graal
-                default -> getGraalScriptEngine();
+                default -> getGraalScriptEngine(useDebugger);
             };
         }
         else {
-            engine = getGraalScriptEngine();
+            engine = getGraalScriptEngine(useDebugger);
         }
         
-        return Optional.ofNullable(engine);
+        return engine;
     }
     
-    private ScriptEngine getGraalScriptEngine() {
+    private ScriptEngine getGraalScriptEngine(boolean useDebugger) {
+        Map<String, String> options = getGraalEngineOptions();
+        
+        // Enable *before* getting engine
+        Map<String, String> debuggerOptions = useDebugger ? enableDebugger() : null;
+        
+        // The debugger is attached to the polyglot engine when it is created so it can't use the shared engine
+        if(debuggerOptions != null) {
+            options.putAll(debuggerOptions);
+            return GraalJSScriptEngine.create(createGraalEngine(options), null);
+        }
+        
+        // Create a new context in the shared engine
+        return GraalJSScriptEngine.create(acquireSharedEngine(options), null);
+    }
+    
+    /**
+     * The options for a Graal polyglot engine, set from preferences.
+     * These are passed to the engine builder rather than set as System properties so that they only apply to the engines created with them.
+     * @see https://www.graalvm.org/latest/reference-manual/js/Options/
+     */
+    Map<String, String> getGraalEngineOptions() {
+        Map<String, String> options = new TreeMap<>();
+        
+        // Options set as "polyglot.*" System properties, such as -D options in Archi.ini. The options below take precedence.
+        for(String name : System.getProperties().stringPropertyNames()) {
+            if(name.startsWith("polyglot.")) {
+                options.put(name.substring("polyglot.".length()), System.getProperty(name));
+            }
+        }
+        
         // Nashorn compatibility
-        System.setProperty("polyglot.js.nashorn-compat", "true");
+        options.put("js.nashorn-compat", "true");
         
         // Turn off console warnings
-        System.setProperty("polyglot.engine.WarnInterpreterOnly", "false");
+        options.put("engine.WarnInterpreterOnly", "false");
         
         // Set this for the ECMA version. Use latest.
-        // See https://www.graalvm.org/latest/reference-manual/js/Options/
-        System.setProperty("polyglot.js.ecmascript-version", "latest");
-
+        options.put("js.ecmascript-version", "latest");
+        
         // Enable loading Node.js modules
         // See https://www.graalvm.org/latest/reference-manual/js/Modules/
-        boolean commonJSEnabled = ArchiScriptPlugin.getInstance().getPreferenceStore().getBoolean(IPreferenceConstants.PREFS_COMMONJS_ENABLED);
-        if(commonJSEnabled) {
-            System.setProperty("polyglot.js.commonjs-require", "true");
-            System.setProperty("polyglot.js.commonjs-require-cwd", ArchiScriptPlugin.getInstance().getPreferenceStore().getString(IPreferenceConstants.PREFS_SCRIPTS_FOLDER));
+        if(ArchiScriptPlugin.getInstance().getPreferenceStore().getBoolean(IPreferenceConstants.PREFS_COMMONJS_ENABLED)) {
+            options.put("js.commonjs-require", "true");
+            options.put("js.commonjs-require-cwd", ArchiScriptPlugin.getInstance().getPreferenceStore().getString(IPreferenceConstants.PREFS_SCRIPTS_FOLDER));
         }
         else {
-            System.clearProperty("polyglot.js.commonjs-require");
-            System.clearProperty("polyglot.js.commonjs-require-cwd");
+            options.remove("js.commonjs-require");
+            options.remove("js.commonjs-require-cwd");
         }
-
-        // Enable *before* getting engine
-        enableDebugger();
-
-        ScriptEngine engine = new ScriptEngineManager().getEngineByName("graal.js");
-        
-        // See https://www.graalvm.org/reference-manual/js/ScriptEngine/
-//        Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
-//        bindings.put("polyglot.js.ecmascript-version", "2022");
-//        bindings.put("polyglot.js.nashorn-compat", true);
-//        bindings.put("polyglot.js.allowIO", true);
-//        bindings.put("polyglot.js.allowNativeAccess", true);
-//        bindings.put("polyglot.js.allowCreateThread", true);
-//        bindings.put("polyglot.js.allowHostClassLookup", true);
-//        bindings.put("polyglot.js.allowHostClassLoading", true);
-//        bindings.put("polyglot.js.allowAllAccess", true);
-
-        return engine;
+        
+        return options;
     }
     
     /**
-     * Enable debugger
-     * @see https://www.graalvm.org/latest/tools/chrome-debugger/
-     * @see https://github.com/oracle/graal/blob/master/docs/tools/chrome-debugger.md 
+     * @return A new polyglot engine with the given options.
+     *         System properties are not read by the engine because the "polyglot.*" properties are already in the options.
      */
-    private void enableDebugger() {
-        if(!PlatformUI.isWorkbenchRunning()   // Ensure we are running in the UI
-                || PlatformUtils.isLinux()) { // On Linux, Chrome will freeze and the devtools URL can't be pasted into the address bar.
-                                              // There will also be popup dialogs in Archi about waiting or force quitting the app.
+    private static Engine createGraalEngine(Map<String, String> options) {
+        return Engine.newBuilder("js")
+                .allowExperimentalOptions(true)
+                .useSystemProperties(false)
+                .options(options)
+                .build();
+    }
+    
+    /**
+     * Get the shared polyglot engine for a new script engine, creating a new one if the options have changed.
+     * Each call must be matched by a call to releaseScriptEngine() when the script engine has been run or discarded.
+     * @return The shared polyglot engine
+     */
+    private static synchronized Engine acquireSharedEngine(Map<String, String> options) {
+        if(sharedEngine == null || !options.equals(sharedEngineOptions)) {
+            Engine oldEngine = sharedEngine;
+            sharedEngine = createGraalEngine(options);
+            sharedEngineOptions = options;
+            
+            // Close the old engine now if no script engines are using it
+            if(oldEngine != null && !sharedEngineUsers.containsKey(oldEngine)) {
+                oldEngine.close();
+            }
+        }
+        
+        sharedEngineUsers.merge(sharedEngine, 1, Integer::sum);
+        
+        return sharedEngine;
+    }
+    
+    /**
+     * Release a script engine that has been run or discarded from the pool.
+     * If it was created from an old shared polyglot engine that no other script engine is using, that engine is closed.
+     */
+    private static synchronized void releaseScriptEngine(ScriptEngine engine) {
+        if(!(engine instanceof GraalJSScriptEngine graalEngine)) {
             return;
         }
         
-        // Default is disabled, so remove these properties before running a script
-        System.getProperties().remove("polyglot.inspect");
-        System.getProperties().remove("polyglot.inspect.Path");
-        //System.getProperties().remove("polyglot.inspect.WaitAttached");
-        //System.getProperties().remove("polyglot.inspect.Suspend");
+        Engine polyglotEngine = graalEngine.getPolyglotEngine();
         
-        String port = ArchiScriptPlugin.getInstance().getPreferenceStore().getString(IPreferenceConstants.PREFS_DEBUGGER_PORT);
+        // Not created from a shared engine, such as when using the debugger
+        if(!sharedEngineUsers.containsKey(polyglotEngine)) {
+            return;
+        }
         
-        // If Debugger not enabled or port not set
-        if(!(ArchiScriptPlugin.getInstance().getPreferenceStore().getBoolean(IPreferenceConstants.PREFS_DEBUGGER_ENABLED) && StringUtils.isSet(port))) {
+        if(sharedEngineUsers.merge(polyglotEngine, -1, Integer::sum) > 0) {
             return;
         }
         
+        sharedEngineUsers.remove(polyglotEngine);
+        
+        if(polyglotEngine != sharedEngine) {
+            polyglotEngine.close();
+        }
+    }
+    
+    /**
+     * Enable debugger
+     * @see https://www.graalvm.org/latest/tools/chrome-debugger/
+     * @see https://github.com/oracle/graal/blob/master/docs/tools/chrome-debugger.md 
+     * @return The engine options to use the debugger, or null if the debugger is not used
+     */
+    private Map<String, String> enableDebugger() {
+        // If Debugger not enabled or port not set
+        if(!isDebuggerEnabled()) {
+            return null;
+        }
+        
+        String port = ArchiScriptPlugin.getInstance().getPreferenceStore().getString(IPreferenceConstants.PREFS_DEBUGGER_PORT);
+        
         MessageDialog dialog = new MessageDialog(null,
                 Messages.JSProvider_0,
                 null,
@@ -190,7 +364,7 @@ public class JSProvider implements IScriptEngineProvider {
                 Messages.JSProvider_2, Messages.JSProvider_3);
         
         if(dialog.open() != Window.OK) {
-            return;
+            return null;
         }
 
         // Mac/Linux needs time to close the dialog window
@@ -207,15 +381,16 @@ public class JSProvider implements IScriptEngineProvider {
         clipboard.setContents(new Object[] {url}, new Transfer[] {TextTransfer.getInstance()});
         clipboard.dispose();
 
-        // Setting these properties will set GraalVM to use Chrome Debug mode.
+        // These options will set GraalVM to use Chrome Debug mode.
         // The user has to paste the URL into a Chrome browser or else Archi will freeze.
-        System.setProperty("polyglot.inspect", port);
-        System.setProperty("polyglot.inspect.Path", path);
-        //System.setProperty("polyglot.inspect.WaitAttached", "true");
-        //System.setProperty("polyglot.inspect.Suspend", "false");
+        Map<String, String> options = new TreeMap<>();
+        options.put("inspect", port);
+        options.put("inspect.Path", path);
+        //options.put("inspect.WaitAttached", "true");
+        //options.put("inspect.Suspend", "false");
 
-        // The "polyglot.inspect.SuspensionTimeout" option is not present in the current version of chromeinspector
-        //System.setProperty("polyglot.inspect.SuspensionTimeout", "1m");
+        // The "inspect.SuspensionTimeout" option is not present in the current version of chromeinspector
+        //options.put("inspect.SuspensionTimeout", "1m");
 
         // Open Browser if it's set in preferences and exists
         String browserPath = ArchiScriptPlugin.getInstance().getPreferenceStore().getString(IPreferenceConstants.PREFS_DEBUGGER_BROWSER);
@@ -238,6 +413,22 @@ public class JSProvider implements IScriptEngineProvider {
                 ex.printStackTrace();
             }
         }
+        
+        return options;
+    }
+    
+    /**
+     * @return true if the debugger is enabled in preferences and can be used
+     */
+    private boolean isDebuggerEnabled() {
+        if(!PlatformUI.isWorkbenchRunning()   // Ensure we are running in the UI
+                || PlatformUtils.isLinux()) { // On Linux, Chrome will freeze and the devtools URL can't be pasted into the address bar.
+                                              // There will also be popup dialogs in Archi about waiting or force quitting the app.
+            return false;
+        }
+        
+        String port = ArchiScriptPlugin.getInstance().getPreferenceStore().getString(IPreferenceConstants.PREFS_DEBUGGER_PORT);
+        return ArchiScriptPlugin.getInstance().getPreferenceStore().getBoolean(IPreferenceConstants.PREFS_DEBUGGER_ENABLED) && StringUtils.isSet(port);
     }
     
     @Override
@@ -14,6 +14,8 @@ public class Messages extends NLS {
 
     public static String JSProvider_3;
 
+    public static String RefreshUIHandler_0;
+
     public static String ScriptsContextMenuContributionItem_0;
 
     static {
@@ -1,5 +1,8 @@
 package com.archimatetool.script;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.dialogs.ProgressMonitorDialog;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.PlatformUI;
@@ -7,6 +10,13 @@ import org.eclipse.ui.PlatformUI;
 /**
  * RefreshUIHandler
  * 
+ * If a script runs for longer than a short time a progress dialog is shown so that the user can cancel it.
+ * The dialog is only shown when the UI is refreshed as that is when its Cancel button can be pressed.
+ * 
+ * There is one RefreshUIHandler for each script run on the UI thread, held in the run's ScriptRunContext.
+ * refresh() is called often, from commands, the Console and the DOM's collection operations,
+ * so it does nothing more than check the time until the refresh interval has passed.
+ * 
  * @author Phillip Beauvoir
  */
 public class RefreshUIHandler {
@@ -14,25 +24,57 @@ public class RefreshUIHandler {
     // Refresh UI at set interval
     private static final int refreshInterval = 100;
 
-    private static long time = 0L;
+    // Show the progress dialog after the script has been running for this long
+    private static final int progressDelay = 1000;
 
-    public static void init() {
-        if(!shouldRun()) {
+    private long time;
+    
+    private long startTime;
+    
+    private String scriptName;
+    
+    private ProgressMonitorDialog progressDialog;
+
+    /**
+     * Start a new RefreshUIHandler for the script run on the current thread if it is the UI thread
+     * @param name The name of the script to show in the progress dialog
+     */
+    public static void init(String name) {
+        if(Display.getCurrent() == null || !shouldRun()) {
             return;
         }
         
+        ScriptRunContext.getCurrent().put(RefreshUIHandler.class, new RefreshUIHandler(name));
+        
         // Disable UI
         setShellEnabled(false);
-
+    }
+    
+    private RefreshUIHandler(String name) {
         // Current time
-        time = System.currentTimeMillis();
+        time = startTime = System.currentTimeMillis();
+        scriptName = name;
     }
     
+    /**
+     * Update the UI if the refresh interval has passed and the script is running on the UI thread,
+     * and then stop the script if it has been cancelled
+     */
     public static void refresh() {
-        if(!shouldRun()) {
+        ScriptRunContext context = ScriptRunContext.peek();
+        if(context == null) {
             return;
         }
         
+        RefreshUIHandler handler = context.get(RefreshUIHandler.class);
+        if(handler != null) {
+            handler.refresh(context);
+        }
+        
+        ScriptRunContext.checkCancelled();
+    }
+    
+    private void refresh(ScriptRunContext context) {
         // Not enough refresh interval time has passed
         if(System.currentTimeMillis() - time < refreshInterval) {
             return;
@@ -40,9 +82,7 @@ public class RefreshUIHandler {
         
         // Update UI thread
         try {
-            if(Display.getCurrent() != null) {
-                while(Display.getCurrent().readAndDispatch());
-            }
+            while(Display.getCurrent().readAndDispatch());
         }
         catch(Exception ex) {
             setShellEnabled(true);
@@ -51,12 +91,46 @@ public class RefreshUIHandler {
         finally {
             time = System.currentTimeMillis();
         }
+        
+        // Show the progress dialog if the script has been running long enough
+        if(progressDialog == null && time - startTime > progressDelay) {
+            openProgressDialog();
+        }
+        
+        // User pressed Cancel
+        if(progressDialog != null && progressDialog.getProgressMonitor().isCanceled()) {
+            context.cancel();
+        }
     }
     
+    /**
+     * Close the progress dialog, enable the UI and end the RefreshUIHandler for the script run on the current thread
+     */
     public static void finalise() {
-        if(shouldRun()) {
-            setShellEnabled(true);
+        ScriptRunContext context = ScriptRunContext.peek();
+        RefreshUIHandler handler = context != null ? context.remove(RefreshUIHandler.class) : null;
+        if(handler == null) {
+            return;
         }
+        
+        if(handler.progressDialog != null) {
+            handler.progressDialog.close();
+            handler.progressDialog = null;
+        }
+        
+        setShellEnabled(true);
+    }
+    
+    /**
+     * Open the progress dialog. It is created after the shells have been disabled so it is enabled.
+     */
+    private void openProgressDialog() {
+        progressDialog = new ProgressMonitorDialog(null);
+        progressDialog.setCancelable(true);
+        progressDialog.open();
+        
+        IProgressMonitor monitor = progressDialog.getProgressMonitor();
+        monitor.beginTask(NLS.bind(Messages.RefreshUIHandler_0, scriptName), IProgressMonitor.UNKNOWN);
     }
     
     /**
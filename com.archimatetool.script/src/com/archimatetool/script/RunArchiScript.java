@@ -6,6 +6,7 @@
 package com.archimatetool.script;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Map.Entry;
 
 import javax.script.ScriptContext;
@@ -19,6 +20,7 @@ import org.graalvm.polyglot.PolyglotException;
 import com.archimatetool.script.commands.CommandHandler;
 import com.archimatetool.script.dom.DomExtensionFactory;
 import com.archimatetool.script.dom.IArchiScriptBinding;
+import com.archimatetool.script.preferences.IPreferenceConstants;
 import com.archimatetool.script.views.console.ConsoleOutput;
 
 
@@ -32,12 +34,54 @@ public class RunArchiScript {
 	// If true exceptions are thrown rather than printed to console or stdout.
 	// Used for testing.
 	boolean throwExceptions;
+	
+	// If false changes made by the script are not kept for undo
+	private boolean undoEnabled = true;
+	
+	// If set the script is profiled
+	private ScriptProfiler profiler;
+	
+	// If set the performance of the run is reported
+	private RunReport runReport;
 
 	public RunArchiScript(File file) {
 		this.file = file;
 	}
 	
+	/**
+	 * @param undoEnabled If false changes made by the script can't be undone but less memory is used. Default is true.
+	 */
+	public void setUndoEnabled(boolean undoEnabled) {
+	    this.undoEnabled = undoEnabled;
+	}
+	
+	/**
+	 * @param profiler If not null the script is profiled and the profiler's report is written when the script ends
+	 */
+	public void setProfiler(ScriptProfiler profiler) {
+	    this.profiler = profiler;
+	}
+	
+	/**
+	 * @param runReport If not null the phase timings and counts of the run are recorded and the report is written when the script ends.
+	 *                  If not set the report is written to the Console if set in Preferences.
+	 */
+	public void setRunReport(RunReport runReport) {
+	    this.runReport = runReport;
+	}
+	
 	public void run() {
+	    long startTime = System.nanoTime();
+	    
+	    // Flight Recorder event for the whole run
+	    ScriptRunEvent event = new ScriptRunEvent();
+	    event.begin();
+	    
+	    if(runReport == null && PlatformUI.isWorkbenchRunning()
+	            && ArchiScriptPlugin.getInstance().getPreferenceStore().getBoolean(IPreferenceConstants.PREFS_RUN_REPORT)) {
+	        runReport = new RunReport(null);
+	    }
+	    
         // Get the provider for this file type
 	    IScriptEngineProvider provider = IScriptEngineProvider.INSTANCE.getProviderForFile(file)
                 .orElseThrow(() -> new RuntimeException(NLS.bind("Script Provider not found for file: {0}", file)));
@@ -45,54 +89,116 @@ public class RunArchiScript {
         ScriptEngine engine = provider.createScriptEngine()
                 .orElseThrow(() -> new RuntimeException(NLS.bind("Script engine not found for file: {0}", file)));
 	    
-	    // Set the script engine class name in a System Property in case we need to know what the engine is elsewhere
-        System.getProperties().put("script.engine", engine.getClass().getName());
+	    // Start the context for this run. This holds the script engine class name in case we need to know what the engine is elsewhere
+        ScriptRunContext context = ScriptRunContext.start(engine.getClass().getName());
         
-        defineGlobalVariables(engine);
-        defineExtensionGlobalVariables(engine);
+        // The provider starts the profiler when it evaluates the script
+        if(profiler != null) {
+            context.put(ScriptProfiler.class, profiler);
+        }
+        
+        // The first phase of the report is the creation of the engine
+        if(runReport != null) {
+            context.put(RunReport.class, runReport);
+            runReport.start(file.getName(), startTime);
+        }
         
-        // Start the console *after* the script engine has been created to avoid showing warning messages
-        ConsoleOutput.start();
+        // The rest of the set up is in the try block so that the context and the report are ended if it fails
+        try {
+            RunReport.startPhase("bindings");
+            
+            defineGlobalVariables(engine);
+            defineExtensionGlobalVariables(engine);
+            
+            // Start the console *after* the script engine has been created to avoid showing warning messages
+            ConsoleOutput.start();
 
-        // Initialise CommandHandler
-        CommandHandler.init();
+            // Initialise CommandHandler
+            CommandHandler.init(undoEnabled);
 
-        // Initialise RefreshUIHandler
-        RefreshUIHandler.init();
-        
-        // Check for linked file
-        if(ScriptFiles.isLinkedFile(file)) {
-            file = ScriptFiles.resolveLinkFile(file);
-        }
+            // Initialise RefreshUIHandler
+            RefreshUIHandler.init(file.getName());
+            
+            // Check for linked file
+            if(ScriptFiles.isLinkedFile(file)) {
+                file = ScriptFiles.resolveLinkFile(file);
+            }
 
-        try {
+            // Providers can split this into the init script and the script
+            RunReport.startPhase("script");
+            
             provider.run(file, engine);
         }
         catch(Throwable ex) {
+            // The script has stopped so printing the exception mustn't be interrupted if it was cancelled
+            context.finish();
+            
             if(throwExceptions) {
                 throw new RuntimeException(ex);
             }
-            printException(ex);
+            printException(ex, context);
         }
         finally {
+            // Write the profile while output still goes to the Console
+            if(profiler != null) {
+                try {
+                    profiler.writeReport(file);
+                }
+                catch(IOException ex) {
+                    printStackTrace(ex, 1);
+                }
+            }
+            
             // End writing to the Console
+            RunReport.startPhase("console");
             ConsoleOutput.end();
             
             // Finalise RefreshUIHandler
+            RunReport.startPhase("refreshUI");
             RefreshUIHandler.finalise();
             
             // Run the Commands on the CommandStack to enable Undo/Redo
+            RunReport.startPhase("commands");
             CommandHandler.finalise();
             
             // Dispose any resources that a binding object may be holding onto
+            RunReport.startPhase("dispose");
             for(Object object : engine.getBindings(ScriptContext.ENGINE_SCOPE).values()) {
                 if(object instanceof IArchiScriptBinding binding) {
                     binding.dispose();
                 }
             }
+            
+            // End the context for this run
+            ScriptRunContext.end();
+            
+            event.commit(file.getAbsolutePath(), engine.getClass().getName(), context.isCancelled());
+            
+            if(runReport != null) {
+                writeRunReport();
+            }
         }
 	}
 	
+	/**
+	 * End the run report and write it, to the Console if it is showing
+	 */
+	private void writeRunReport() {
+	    runReport.end();
+	    
+	    ConsoleOutput.start();
+	    
+	    try {
+	        runReport.write();
+	    }
+	    catch(IOException ex) {
+	        printStackTrace(ex, 1);
+	    }
+	    finally {
+	        ConsoleOutput.end();
+	    }
+	}
+	
     /**
      * Global Variables
      */
@@ -117,11 +223,15 @@ public class RunArchiScript {
         }
     }
 
-	private void printException(Throwable ex) {
+	private void printException(Throwable ex, ScriptRunContext context) {
 	    // The init file must declare functions exit() and quit() to throw an exception with message "__EXIT__"
 	    if(ex instanceof ScriptException && ex.getMessage().contains("__EXIT__")) {
 	        System.out.println("Exited");
 	    }
+	    // Cancelled by the user
+	    else if(context.isCancelled()) {
+	        System.out.println("Cancelled");
+	    }
 	    // Other exception
 	    else {
 	        // GraalVM exception
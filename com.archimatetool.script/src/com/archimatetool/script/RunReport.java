@@ -0,0 +1,282 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.archimatetool.script.commands.ScriptCommand;
+
+/**
+ * Performance report for a script run.
+ * 
+ * Records the wall time of each phase of the run, the number of commands executed by name, the number of proxies created,
+ * the number of selector queries and the bytes allocated by the thread running the script.
+ * 
+ * A report is set for a run with RunArchiScript.setRunReport() and is held in the ScriptRunContext for the run.
+ * The static methods that record counts do nothing unless a report is active so that there is little cost when reports are not used.
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class RunReport {
+    
+    // Number of reports being recorded on all threads
+    private static final AtomicInteger activeCount = new AtomicInteger();
+    
+    private File jsonFile;
+    
+    private String scriptName;
+    private long startTime;
+    private long startAllocatedBytes;
+    
+    private String phase;
+    private long phaseStartTime;
+    
+    // Phase -> nanoseconds, in the order that the phases were run
+    private Map<String, Long> phaseTimes = new LinkedHashMap<>();
+    
+    // Command name -> count
+    private Map<String, Integer> commandCounts = new TreeMap<>();
+    
+    private long proxyCount;
+    private long selectorQueryCount;
+    
+    private long totalTime;
+    private long allocatedBytes = -1;
+    
+    /**
+     * @param jsonFile The file to write the report to as JSON, or null to write the report to the console
+     */
+    public RunReport(File jsonFile) {
+        this.jsonFile = jsonFile;
+    }
+    
+    /**
+     * Start the report. The first phase is the creation of the script engine.
+     * @param scriptName The name of the script file
+     * @param startTime The time from System.nanoTime() when the run started
+     */
+    void start(String scriptName, long startTime) {
+        this.scriptName = scriptName;
+        this.startTime = startTime;
+        phase = "engine";
+        phaseStartTime = startTime;
+        startAllocatedBytes = getAllocatedBytes();
+        activeCount.incrementAndGet();
+    }
+    
+    /**
+     * End the report and the last phase
+     */
+    void end() {
+        endPhase();
+        totalTime = System.nanoTime() - startTime;
+        
+        long bytes = getAllocatedBytes();
+        if(bytes >= 0 && startAllocatedBytes >= 0) {
+            allocatedBytes = bytes - startAllocatedBytes;
+        }
+        
+        activeCount.decrementAndGet();
+    }
+    
+    private void beginPhase(String name) {
+        endPhase();
+        phase = name;
+        phaseStartTime = System.nanoTime();
+    }
+    
+    private void endPhase() {
+        if(phase != null) {
+            phaseTimes.merge(phase, System.nanoTime() - phaseStartTime, Long::sum);
+            phase = null;
+        }
+    }
+    
+    /**
+     * @return The report for the script run on the current thread, or null if there isn't one
+     */
+    private static RunReport getCurrent() {
+        if(activeCount.get() == 0) {
+            return null;
+        }
+        
+        ScriptRunContext context = ScriptRunContext.peek();
+        return context != null ? context.get(RunReport.class) : null;
+    }
+    
+    /**
+     * End the current phase of the script run on the current thread, if it has a report, and start a new one
+     * @param name The name of the phase
+     */
+    public static void startPhase(String name) {
+        RunReport report = getCurrent();
+        if(report != null) {
+            report.beginPhase(name);
+        }
+    }
+    
+    /**
+     * Count a command executed by the script run on the current thread, if it has a report
+     */
+    public static void countCommand(ScriptCommand cmd) {
+        RunReport report = getCurrent();
+        if(report != null) {
+            String name = cmd.getLabel() != null ? cmd.getLabel() : cmd.getClass().getName();
+            report.commandCounts.merge(name, 1, Integer::sum);
+        }
+    }
+    
+    /**
+     * Count a proxy created by the script run on the current thread, if it has a report
+     */
+    public static void countProxy() {
+        RunReport report = getCurrent();
+        if(report != null) {
+            report.proxyCount++;
+        }
+    }
+    
+    /**
+     * Count a selector query by the script run on the current thread, if it has a report.
+     * This is called once for each find() or filter() called by the script, not for each selector that is parsed or tested.
+     */
+    public static void countSelectorQuery() {
+        RunReport report = getCurrent();
+        if(report != null) {
+            report.selectorQueryCount++;
+        }
+    }
+    
+    /**
+     * @return The bytes allocated by the current thread, or -1 if the JVM can't tell
+     */
+    private static long getAllocatedBytes() {
+        try {
+            if(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()
+                    && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean.getCurrentThreadAllocatedBytes();
+            }
+        }
+        catch(LinkageError ex) {
+            // com.sun.management is not available
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Write the report to the console or to the JSON file
+     */
+    void write() throws IOException {
+        if(jsonFile != null) {
+            Files.writeString(jsonFile.toPath(), toJSON(), StandardCharsets.UTF_8);
+            System.out.println("Run report written to: " + jsonFile);
+        }
+        else {
+            System.out.print(toString());
+        }
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        String nl = System.lineSeparator();
+        
+        sb.append("Run report for ").append(scriptName).append(nl);
+        sb.append(String.format("  Total time: %.1f ms", millis(totalTime))).append(nl);
+        
+        for(Entry<String, Long> entry : phaseTimes.entrySet()) {
+            sb.append(String.format("    %-10s %10.1f ms", entry.getKey(), millis(entry.getValue()))).append(nl);
+        }
+        
+        sb.append("  Commands: ").append(commandCounts.values().stream().mapToInt(Integer::intValue).sum()).append(nl);
+        for(Entry<String, Integer> entry : commandCounts.entrySet()) {
+            sb.append(String.format("    %-20s %8d", entry.getKey(), entry.getValue())).append(nl);
+        }
+        
+        sb.append("  Proxies created: ").append(proxyCount).append(nl);
+        sb.append("  Selector queries: ").append(selectorQueryCount).append(nl);
+        
+        if(allocatedBytes >= 0) {
+            sb.append(String.format("  Allocated: %.1f MB", allocatedBytes / (1024.0 * 1024.0))).append(nl);
+        }
+        
+        return sb.toString();
+    }
+    
+    /**
+     * @return The report as a JSON object. Times are in milliseconds.
+     */
+    public String toJSON() {
+        StringBuilder sb = new StringBuilder();
+        
+        sb.append("{\n");
+        sb.append("  \"script\": ").append(quote(scriptName)).append(",\n");
+        sb.append("  \"totalTimeMs\": ").append(String.format(Locale.ROOT, "%.3f", millis(totalTime))).append(",\n");
+        
+        sb.append("  \"phasesMs\": {");
+        String separator = "\n";
+        for(Entry<String, Long> entry : phaseTimes.entrySet()) {
+            sb.append(separator).append("    ").append(quote(entry.getKey())).append(": ").append(String.format(Locale.ROOT, "%.3f", millis(entry.getValue())));
+            separator = ",\n";
+        }
+        sb.append("\n  },\n");
+        
+        sb.append("  \"commands\": {");
+        separator = "\n";
+        for(Entry<String, Integer> entry : commandCounts.entrySet()) {
+            sb.append(separator).append("    ").append(quote(entry.getKey())).append(": ").append(entry.getValue());
+            separator = ",\n";
+        }
+        sb.append("\n  },\n");
+        
+        sb.append("  \"proxiesCreated\": ").append(proxyCount).append(",\n");
+        sb.append("  \"selectorQueries\": ").append(selectorQueryCount).append(",\n");
+        sb.append("  \"allocatedBytes\": ").append(allocatedBytes).append("\n");
+        sb.append("}\n");
+        
+        return sb.toString();
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        
+        for(char c : s.toCharArray()) {
+            switch(c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if(c < 0x20) {
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int)c));
+                    }
+                    else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+/**
+ * Thrown at a cancellation check when the user has cancelled the running script
+ * 
+ * @author Phillip Beauvoir
+ */
+public class ScriptCancelledException extends ArchiScriptException {
+
+    public ScriptCancelledException() {
+        super("Script cancelled"); //$NON-NLS-1$
+    }
+}
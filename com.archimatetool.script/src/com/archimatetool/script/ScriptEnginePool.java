@@ -0,0 +1,176 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.script.ScriptEngine;
+
+/**
+ * A pool of script engines that are created in the background before they are needed
+ * so that a script run can take an engine that is ready to use rather than wait for one to be created.
+ *
+ * An engine is only used for one script run and is not put back in the pool so that no global state is carried over from one run to the next.
+ * Instead, the pool is filled again in the background when an engine is taken.
+ *
+ * Engines are created for a configuration, such as the preferences used to create the engine.
+ * If the configuration has changed since the engines in the pool were created they are discarded
+ * and passed to the engine disposer so that any resources they share can be released.
+ *
+ * @author Phillip Beauvoir
+ */
+public class ScriptEnginePool {
+
+    private int size;
+    private Supplier<String> configurationSupplier;
+    private Supplier<ScriptEngine> engineSupplier;
+    private Consumer<ScriptEngine> engineDisposer;
+
+    // Access to these is synchronized on this
+    private Deque<ScriptEngine> engines = new ArrayDeque<>();
+    private String poolConfiguration;
+    private boolean filling;
+
+    /**
+     * @param size The number of engines to keep in the pool
+     * @param configurationSupplier Supplies a key for the current configuration. This is called on the thread that takes an engine or fills the pool.
+     * @param engineSupplier Creates a new engine. This is called on a background thread when filling the pool so it mustn't access the UI.
+     */
+    public ScriptEnginePool(int size, Supplier<String> configurationSupplier, Supplier<ScriptEngine> engineSupplier) {
+        this(size, configurationSupplier, engineSupplier, engine -> {});
+    }
+
+    /**
+     * @param size The number of engines to keep in the pool
+     * @param configurationSupplier Supplies a key for the current configuration. This is called on the thread that takes an engine or fills the pool.
+     * @param engineSupplier Creates a new engine. This is called on a background thread when filling the pool so it mustn't access the UI.
+     * @param engineDisposer Called with each engine that is discarded from the pool without being used. This can be called on a background thread.
+     */
+    public ScriptEnginePool(int size, Supplier<String> configurationSupplier, Supplier<ScriptEngine> engineSupplier, Consumer<ScriptEngine> engineDisposer) {
+        this.size = size;
+        this.configurationSupplier = configurationSupplier;
+        this.engineSupplier = engineSupplier;
+        this.engineDisposer = engineDisposer;
+    }
+
+    /**
+     * Take an engine from the pool. If there isn't one for the current configuration a new engine is created on the calling thread.
+     * The pool is then filled again in the background.
+     * @return The engine
+     */
+    public Optional<ScriptEngine> take() {
+        String configuration = configurationSupplier.get();
+        ScriptEngine engine = null;
+
+        synchronized(this) {
+            if(Objects.equals(configuration, poolConfiguration)) {
+                engine = engines.poll();
+            }
+            else {
+                discardEngines();
+                poolConfiguration = configuration;
+            }
+        }
+
+        if(engine == null) {
+            engine = engineSupplier.get();
+        }
+
+        fill();
+
+        return Optional.ofNullable(engine);
+    }
+
+    /**
+     * Fill the pool in the background for the current configuration if it isn't already full or being filled
+     */
+    public void fill() {
+        String configuration = configurationSupplier.get();
+
+        synchronized(this) {
+            if(!Objects.equals(configuration, poolConfiguration)) {
+                discardEngines();
+                poolConfiguration = configuration;
+            }
+
+            if(filling || engines.size() >= size) {
+                return;
+            }
+
+            filling = true;
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                while(true) {
+                    ScriptEngine engine = engineSupplier.get();
+
+                    synchronized(this) {
+                        // Stop if the engine couldn't be created
+                        if(engine == null) {
+                            break;
+                        }
+
+                        // Stop if the configuration changed while the engine was being created
+                        if(!Objects.equals(configuration, poolConfiguration)) {
+                            engineDisposer.accept(engine);
+                            break;
+                        }
+
+                        engines.add(engine);
+
+                        if(engines.size() >= size) {
+                            break;
+                        }
+                    }
+                }
+            }
+            catch(Exception ex) {
+                ex.printStackTrace();
+            }
+            finally {
+                synchronized(this) {
+                    filling = false;
+                }
+            }
+        }, "Script Engine Pool"); //$NON-NLS-1$
+
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Discard all engines in the pool
+     */
+    public synchronized void clear() {
+        discardEngines();
+        poolConfiguration = null;
+    }
+
+    /**
+     * Remove all engines from the pool and pass them to the engine disposer.
+     * Must be called while synchronized on this.
+     */
+    private void discardEngines() {
+        ScriptEngine engine;
+        while((engine = engines.poll()) != null) {
+            engineDisposer.accept(engine);
+        }
+    }
+
+    /**
+     * @return The number of engines in the pool that are ready to use
+     */
+    synchronized int getEngineCount() {
+        return engines.size();
+    }
+}
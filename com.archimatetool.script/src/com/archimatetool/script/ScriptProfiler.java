@@ -0,0 +1,243 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.graalvm.polyglot.Engine;
+
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.tools.profiler.CPUSampler;
+import com.oracle.truffle.tools.profiler.CPUSamplerData;
+import com.oracle.truffle.tools.profiler.ProfilerNode;
+
+/**
+ * CPU sampling profiler for a script run using the Truffle CPUSampler.
+ * 
+ * The provider starts the profiler when the script is evaluated if one has been set in the ScriptRunContext for the run.
+ * When the run ends the report is written. It lists the self and total time of each function, and is written to the console or to a file.
+ * The samples are also written as collapsed stacks, one line for each stack with its sample count, which can be turned into a flame graph.
+ * 
+ * Only scripts run with the GraalVM JavaScript engine can be profiled.
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class ScriptProfiler {
+    
+    // Sample period in milliseconds
+    private static final long SAMPLE_PERIOD = 1;
+    
+    // Maximum number of functions in the report
+    private static final int REPORT_SIZE = 50;
+    
+    private File reportFile;
+    
+    private CPUSampler sampler;
+    private Thread thread;
+    private Collection<ProfilerNode<CPUSampler.Payload>> samples;
+    private long sampleInterval;
+    
+    /**
+     * Self and total sample counts for a function
+     */
+    private static class FunctionTime {
+        String name;
+        long self;
+        long total;
+        
+        FunctionTime(String name) {
+            this.name = name;
+        }
+    }
+    
+    /**
+     * @param reportFile The file to write the report to, or null to write it to the console.
+     *                   The collapsed stacks are written to the same file name with ".collapsed" added.
+     */
+    public ScriptProfiler(File reportFile) {
+        this.reportFile = reportFile;
+    }
+    
+    /**
+     * Start collecting samples for scripts evaluated by the polyglot engine on the current thread
+     */
+    public void start(Engine engine) {
+        thread = Thread.currentThread();
+        
+        sampler = CPUSampler.find(engine);
+        sampler.clearData();
+        sampler.setPeriod(SAMPLE_PERIOD);
+        sampler.setCollecting(true);
+    }
+    
+    /**
+     * Stop collecting samples and keep the samples for the current thread
+     */
+    public void stop() {
+        if(sampler == null) {
+            return;
+        }
+        
+        sampler.setCollecting(false);
+        
+        samples = new ArrayList<>();
+        
+        for(CPUSamplerData data : sampler.getDataList()) {
+            Collection<ProfilerNode<CPUSampler.Payload>> nodes = data.getThreadData().get(thread);
+            if(nodes != null) {
+                samples.addAll(nodes);
+                sampleInterval = data.getSampleInterval();
+            }
+        }
+        
+        sampler.clearData();
+        sampler = null;
+    }
+    
+    /**
+     * Write the report and collapsed stacks for the script
+     * @param scriptFile The script that was run
+     */
+    public void writeReport(File scriptFile) throws IOException {
+        if(samples == null) {
+            System.out.println("Profiling is only available for scripts run with the GraalVM JavaScript engine.");
+            return;
+        }
+        
+        String report = createReport(scriptFile);
+        File collapsedFile = reportFile != null ? new File(reportFile.getPath() + ".collapsed")
+                                                : new File(System.getProperty("java.io.tmpdir"), scriptFile.getName() + ".collapsed");
+        
+        if(reportFile != null) {
+            Files.writeString(reportFile.toPath(), report, StandardCharsets.UTF_8);
+            System.out.println("Profile written to: " + reportFile);
+        }
+        else {
+            System.out.print(report);
+        }
+        
+        Files.writeString(collapsedFile.toPath(), createCollapsedStacks(), StandardCharsets.UTF_8);
+        System.out.println("Collapsed stacks written to: " + collapsedFile);
+    }
+    
+    /**
+     * @return The report of self and total time for each function, ordered by self time
+     */
+    String createReport(File scriptFile) {
+        Map<String, FunctionTime> functions = new HashMap<>();
+        long totalSamples = 0;
+        
+        for(ProfilerNode<CPUSampler.Payload> node : samples) {
+            totalSamples += node.getPayload().getHitCount();
+            addFunctionTimes(node, functions, new HashSet<>());
+        }
+        
+        List<FunctionTime> list = new ArrayList<>(functions.values());
+        list.sort((f1, f2) -> Long.compare(f2.self, f1.self));
+        
+        StringWriter sw = new StringWriter();
+        PrintWriter writer = new PrintWriter(sw);
+        
+        writer.printf("Profile of %s: %d samples every %d ms%n", scriptFile.getName(), totalSamples, sampleInterval);
+        writer.printf("%12s %7s %12s %7s  %s%n", "Self (ms)", "Self %", "Total (ms)", "Total %", "Function");
+        
+        for(int i = 0; i < list.size() && i < REPORT_SIZE; i++) {
+            FunctionTime function = list.get(i);
+            writer.printf("%12d %6.1f%% %12d %6.1f%%  %s%n",
+                    function.self * sampleInterval, percent(function.self, totalSamples),
+                    function.total * sampleInterval, percent(function.total, totalSamples),
+                    function.name);
+        }
+        
+        writer.flush();
+        return sw.toString();
+    }
+    
+    /**
+     * Add the sample counts of the node and its children to their functions.
+     * The total of a recursive function is only counted at its outermost call.
+     */
+    private void addFunctionTimes(ProfilerNode<CPUSampler.Payload> node, Map<String, FunctionTime> functions, Set<String> callers) {
+        String name = getName(node);
+        FunctionTime function = functions.computeIfAbsent(name, FunctionTime::new);
+        
+        function.self += node.getPayload().getSelfHitCount();
+        
+        boolean outermost = callers.add(name);
+        if(outermost) {
+            function.total += node.getPayload().getHitCount();
+        }
+        
+        for(ProfilerNode<CPUSampler.Payload> child : node.getChildren()) {
+            addFunctionTimes(child, functions, callers);
+        }
+        
+        if(outermost) {
+            callers.remove(name);
+        }
+    }
+    
+    /**
+     * @return The collapsed stacks. Each line is the functions in a stack separated by ";" followed by the number of samples in that stack.
+     */
+    String createCollapsedStacks() {
+        StringBuilder sb = new StringBuilder();
+        
+        for(ProfilerNode<CPUSampler.Payload> node : samples) {
+            addCollapsedStacks(node, "", sb);
+        }
+        
+        return sb.toString();
+    }
+    
+    private void addCollapsedStacks(ProfilerNode<CPUSampler.Payload> node, String parentStack, StringBuilder sb) {
+        String stack = parentStack.isEmpty() ? getName(node) : parentStack + ";" + getName(node);
+        
+        int selfCount = node.getPayload().getSelfHitCount();
+        if(selfCount > 0) {
+            sb.append(stack).append(' ').append(selfCount).append('\n');
+        }
+        
+        for(ProfilerNode<CPUSampler.Payload> child : node.getChildren()) {
+            addCollapsedStacks(child, stack, sb);
+        }
+    }
+    
+    /**
+     * @return The function name and its location in the source
+     */
+    private String getName(ProfilerNode<CPUSampler.Payload> node) {
+        String name = node.getRootName();
+        if(name == null || name.isEmpty()) {
+            name = "<anonymous>";
+        }
+        
+        SourceSection section = node.getSourceSection();
+        if(section != null && section.isAvailable()) {
+            name += " (" + section.getSource().getName() + ":" + section.getStartLine() + ")";
+        }
+        
+        // Semi-colons separate the functions in a collapsed stack
+        return name.replace(';', ',');
+    }
+    
+    private double percent(long count, long total) {
+        return total == 0 ? 0 : count * 100.0 / total;
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The state of a script run.
+ *
+ * The context is bound to the thread that runs the script so that state such as the commands to be put on a model's CommandStack
+ * and the current model belongs to one script run rather than being held in static fields.
+ * This means that scripts can be run at the same time on different threads.
+ *
+ * There is only a context between start() and end(). Code that can also be called outside a script run,
+ * for example when DOM objects are used directly in unit tests, uses peek() and does without the run's state if there is no context.
+ *
+ * @author Phillip Beauvoir
+ */
+public class ScriptRunContext {
+
+    private static final ThreadLocal<ScriptRunContext> current = new ThreadLocal<>();
+
+    // The context that was current when this one was started, if a script is run from another script
+    private ScriptRunContext previous;
+
+    // Class name of the script engine
+    private String engineName;
+
+    // Objects that hold state for this run, keyed by their class
+    private Map<Class<?>, Object> objects = new HashMap<>();
+
+    // Set when the user cancels the run
+    private volatile boolean cancelled;
+
+    // Set when the script has stopped so that cancellation checks don't interrupt the clean up
+    private boolean finished;
+
+    /**
+     * @return The context for the script run on the current thread
+     * @throws IllegalStateException if a script run has not been started on the current thread
+     */
+    public static ScriptRunContext getCurrent() {
+        ScriptRunContext context = current.get();
+
+        if(context == null) {
+            throw new IllegalStateException("A script run has not been started on this thread"); //$NON-NLS-1$
+        }
+
+        return context;
+    }
+
+    /**
+     * @return The context for the script run on the current thread, or null if a script run has not been started on the current thread
+     */
+    public static ScriptRunContext peek() {
+        return current.get();
+    }
+
+    /**
+     * Start a new context for a script run on the current thread
+     * @param engineName The class name of the script engine
+     * @return The new context
+     */
+    public static ScriptRunContext start(String engineName) {
+        ScriptRunContext context = new ScriptRunContext(engineName);
+        context.previous = current.get();
+        current.set(context);
+        return context;
+    }
+
+    /**
+     * End the context for the script run on the current thread and restore the previous one, if any
+     */
+    public static void end() {
+        ScriptRunContext context = current.get();
+
+        if(context != null && context.previous != null) {
+            current.set(context.previous);
+        }
+        else {
+            current.remove();
+        }
+    }
+
+    /**
+     * Throw a ScriptCancelledException if the script run on the current thread has been cancelled.
+     * This is called at points where the script can be stopped safely, such as before a command is executed.
+     */
+    public static void checkCancelled() {
+        ScriptRunContext context = current.get();
+
+        if(context != null && !context.finished && context.isCancelled()) {
+            throw new ScriptCancelledException();
+        }
+    }
+
+    private ScriptRunContext(String engineName) {
+        this.engineName = engineName;
+    }
+
+    /**
+     * @return The class name of the script engine, or null if not set
+     */
+    public String getEngineName() {
+        return engineName;
+    }
+
+    /**
+     * Cancel this run. The script stops at the next cancellation check.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Mark the script as stopped. Cancellation checks do nothing after this.
+     */
+    public void finish() {
+        finished = true;
+    }
+
+    /**
+     * @return true if this run, or the run that started it, has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled || (previous != null && previous.isCancelled());
+    }
+
+    /**
+     * @return The object of the given class for this run, or null
+     */
+    public <T> T get(Class<T> type) {
+        return type.cast(objects.get(type));
+    }
+
+    /**
+     * @return The object of the given class for this run, creating it with the supplier if there isn't one
+     */
+    public <T> T get(Class<T> type, Supplier<T> supplier) {
+        T object = get(type);
+
+        if(object == null) {
+            object = supplier.get();
+            objects.put(type, object);
+        }
+
+        return object;
+    }
+
+    /**
+     * Set the object of the given class for this run
+     */
+    public <T> void put(Class<T> type, T object) {
+        objects.put(type, object);
+    }
+
+    /**
+     * Remove the object of the given class for this run
+     * @return The object that was removed, or null
+     */
+    public <T> T remove(Class<T> type) {
+        return type.cast(objects.remove(type));
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a script run.
+ * 
+ * Nothing is recorded unless a recording with this event enabled is running.
+ * The fields are only set if the event is committed.
+ * 
+ * @author Phillip Beauvoir
+ */
+@Name("com.archimatetool.script.ScriptRun")
+@Label("Script Run")
+@Description("A jArchi script run")
+@Category({"Archi", "jArchi"})
+@StackTrace(false)
+@SuppressWarnings("nls")
+class ScriptRunEvent extends Event {
+    
+    @Label("Script")
+    @Description("Path of the script file")
+    String script;
+    
+    @Label("Engine")
+    @Description("Class name of the script engine")
+    String engine;
+    
+    @Label("Cancelled")
+    boolean cancelled;
+    
+    /**
+     * End the event and commit it if it is enabled and longer than its threshold
+     */
+    void commit(String script, String engine, boolean cancelled) {
+        end();
+        
+        if(shouldCommit()) {
+            this.script = script;
+            this.engine = engine;
+            this.cancelled = cancelled;
+            commit();
+        }
+    }
+}
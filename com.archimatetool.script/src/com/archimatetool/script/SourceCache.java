@@ -0,0 +1,62 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.graalvm.polyglot.Source;
+
+/**
+ * Cache of GraalVM Sources by URL and last modified time.
+ *
+ * When the same Source is evaluated in contexts that share a polyglot Engine the parsed and compiled code is reused.
+ *
+ * @author Phillip Beauvoir
+ */
+class SourceCache {
+
+    private static Map<String, CachedSource> cache = new ConcurrentHashMap<>();
+
+    private static class CachedSource {
+        long lastModified;
+        Source source;
+
+        CachedSource(long lastModified, Source source) {
+            this.lastModified = lastModified;
+            this.source = source;
+        }
+    }
+
+    /**
+     * @param url The URL of a JavaScript file
+     * @param name The name of the Source as shown in error messages
+     * @return The cached Source for the URL, or a new Source if the file has been modified since it was cached
+     */
+    static Source getSource(URL url, String name) throws IOException {
+        String key = url.toExternalForm();
+        URLConnection connection = url.openConnection();
+
+        try(InputStream in = connection.getInputStream()) {
+            long lastModified = connection.getLastModified();
+
+            CachedSource cachedSource = cache.get(key);
+            if(cachedSource != null && cachedSource.lastModified == lastModified) {
+                return cachedSource.source;
+            }
+
+            Source source = Source.newBuilder("js", new InputStreamReader(in, StandardCharsets.UTF_8), name).build(); //$NON-NLS-1$
+            cache.put(key, new CachedSource(lastModified, source));
+            return source;
+        }
+    }
+}
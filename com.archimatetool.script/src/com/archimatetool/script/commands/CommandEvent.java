@@ -0,0 +1,56 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.commands;
+
+import com.archimatetool.model.IArchimateModel;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a command performed by a script.
+ * 
+ * Nothing is recorded unless a recording with this event enabled is running.
+ * The fields are only set if the event is committed.
+ * 
+ * @author Phillip Beauvoir
+ */
+@Name("com.archimatetool.script.Command")
+@Label("Script Command")
+@Description("A command performed by a jArchi script")
+@Category({"Archi", "jArchi"})
+@StackTrace(false)
+@SuppressWarnings("nls")
+class CommandEvent extends Event {
+    
+    @Label("Command Class")
+    Class<?> commandClass;
+    
+    @Label("Command")
+    String command;
+    
+    @Label("Model")
+    String model;
+    
+    /**
+     * End the event and commit it if it is enabled and longer than its threshold
+     */
+    void commit(ScriptCommand cmd) {
+        end();
+        
+        if(shouldCommit()) {
+            commandClass = cmd.getClass();
+            command = cmd.getLabel();
+            IArchimateModel m = cmd.getModel();
+            model = m != null ? m.getName() : null;
+            commit();
+        }
+    }
+}
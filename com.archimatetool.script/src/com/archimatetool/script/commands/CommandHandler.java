@@ -13,56 +13,165 @@ import org.eclipse.gef.commands.CommandStack;
 import org.eclipse.gef.commands.CompoundCommand;
 
 import com.archimatetool.editor.model.commands.NonNotifyingCompoundCommand;
+import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.script.RefreshUIHandler;
+import com.archimatetool.script.RunReport;
+import com.archimatetool.script.ScriptRunContext;
 
 /**
  * CommandHandler
  * 
+ * There is one CommandHandler for each script run, held in the run's ScriptRunContext.
+ * 
  * @author Phillip Beauvoir
  */
 public class CommandHandler {
     
-    private static Map<CommandStack, CompoundCommand> compoundcommands;
+    private Map<CommandStack, CompoundCommand> compoundcommands = new HashMap<>();
+    
+    // If false commands are performed but not kept for undo
+    private boolean undoEnabled = true;
+    
+    // Batch mode
+    private int batchDepth;
+    private Map<IArchimateModel, CompoundCommand> batchCompoundCommands; // Model -> CompoundCommand (or null if the model has no CommandStack)
     
     public static void init() {
-        compoundcommands = new HashMap<>();
+        init(true);
+    }
+    
+    /**
+     * Start a new CommandHandler for the script run on the current thread
+     * @param undoEnabled If false then commands are performed but are not kept and put on the model's CommandStack when the script ends.
+     *                    This means that changes can't be undone but memory use does not grow with each change.
+     *                    This is intended for scripts run from the command line where there is no-one to undo changes.
+     */
+    public static void init(boolean undoEnabled) {
+        ScriptRunContext.getCurrent().put(CommandHandler.class, new CommandHandler(undoEnabled));
+    }
+    
+    /**
+     * @return The CommandHandler for the script run on the current thread.
+     *         If there isn't one, such as when DOM objects are used directly in unit tests,
+     *         a new CommandHandler that performs commands but doesn't keep them for undo.
+     */
+    private static CommandHandler getInstance() {
+        ScriptRunContext context = ScriptRunContext.peek();
+        CommandHandler handler = context != null ? context.get(CommandHandler.class) : null;
+        return handler != null ? handler : new CommandHandler(false);
+    }
+    
+    private CommandHandler(boolean undoEnabled) {
+        this.undoEnabled = undoEnabled;
     }
 
     public static void executeCommand(ScriptCommand cmd) {
+        getInstance().execute(cmd);
+    }
+    
+    private void execute(ScriptCommand cmd) {
+        // Stop here if the user has cancelled the script so that the command is not half done
+        ScriptRunContext.checkCancelled();
+        
         if(!cmd.canExecute()) {
             return;
         }
         
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        
         // Perform the command *before* putting it on the CommandStack in case an exception is thrown.
         // We don't want to undo/redo a broken command.
         cmd.perform();
         
-        // Get the CommandStack
-        CommandStack stack = (CommandStack)cmd.getModel().getAdapter(CommandStack.class);
+        event.commit(cmd);
+        
+        RunReport.countCommand(cmd);
         
-        // Get the CompoundCommand for the model's CommandStack and add the command to it
-        if(stack != null) {
-            CompoundCommand compound = compoundcommands.computeIfAbsent(stack, commandStack -> new ScriptNonNotifyingCompoundCommand());
-            compound.add(cmd);
+        // Add the command to the CompoundCommand for the model's CommandStack unless undo is not enabled.
+        // In batch mode use the model's CompoundCommand that has already been looked up.
+        if(undoEnabled) {
+            CompoundCommand compound = batchDepth > 0 ? getBatchCompoundCommand(cmd.getModel()) : getCompoundCommand(cmd.getModel());
+            if(compound != null) {
+                compound.add(cmd);
+            }
         }
         
-        // Take this opportunity to update the UI if set
+        // Take this opportunity to update the UI if set.
+        // This is also done in batch mode so that a long batch can be cancelled. The UI is only updated at the refresh interval.
         RefreshUIHandler.refresh();
     }
-
+    
+    /**
+     * @return true if commands are kept so that they can be undone
+     */
+    public static boolean isUndoEnabled() {
+        return getInstance().undoEnabled;
+    }
+    
+    private CompoundCommand getBatchCompoundCommand(IArchimateModel model) {
+        if(!batchCompoundCommands.containsKey(model)) {
+            batchCompoundCommands.put(model, getCompoundCommand(model));
+        }
+        
+        return batchCompoundCommands.get(model);
+    }
+    
+    /**
+     * @return The CompoundCommand for the model's CommandStack, or null if the model doesn't have a CommandStack
+     */
+    private CompoundCommand getCompoundCommand(IArchimateModel model) {
+        CommandStack stack = (CommandStack)model.getAdapter(CommandStack.class);
+        return stack != null ? compoundcommands.computeIfAbsent(stack, commandStack -> new ScriptNonNotifyingCompoundCommand()) : null;
+    }
+    
+    /**
+     * Start a batch of commands.
+     * In batch mode the CompoundCommand for each model's CommandStack is looked up once rather than for each command.
+     * Batches can be nested and batch mode ends when the outermost batch ends.
+     */
+    public static void beginBatch() {
+        CommandHandler handler = getInstance();
+        
+        if(handler.batchDepth++ == 0) {
+            handler.batchCompoundCommands = new HashMap<>();
+        }
+    }
+    
+    /**
+     * End a batch of commands started with beginBatch()
+     */
+    public static void endBatch() {
+        CommandHandler handler = getInstance();
+        
+        if(handler.batchDepth == 0) {
+            return;
+        }
+        
+        if(--handler.batchDepth == 0) {
+            handler.batchCompoundCommands = null;
+            
+            // Update the UI now that the batch has ended
+            RefreshUIHandler.refresh();
+        }
+    }
+    
+    /**
+     * Put the commands for the script run on the current thread on the CommandStack of each model and end the CommandHandler
+     */
     public static void finalise() {
-        if(compoundcommands == null) {
+        // Remove the CommandHandler so that it can be garbage collected, otherwise we will have a memory leak
+        ScriptRunContext context = ScriptRunContext.peek();
+        CommandHandler handler = context != null ? context.remove(CommandHandler.class) : null;
+        if(handler == null) {
             return;
         }
         
         // This simply calls empty execute() methods since perform() has already been called
         // It puts the commmands on the CommandStack for each model so that Undo/Redo is enabled
-        for(Entry<CommandStack, CompoundCommand> e : compoundcommands.entrySet()) {
+        for(Entry<CommandStack, CompoundCommand> e : handler.compoundcommands.entrySet()) {
             e.getKey().execute(e.getValue());
         }
-        
-        // Set this to null so that it can be garbage collected, otherwise we will have a memory leak
-        compoundcommands = null;
     }
     
     // Always return true for these so that all commands do their dummy execute() command and undo/redo always runs
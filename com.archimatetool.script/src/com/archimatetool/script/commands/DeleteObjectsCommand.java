@@ -0,0 +1,180 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.commands;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModelConnection;
+import com.archimatetool.model.IDiagramModelObject;
+
+/**
+ * Delete many objects in one command.
+ *
+ * Diagram connections and relationships are disconnected, and diagram objects and folder objects are removed from their parent lists.
+ * Objects are removed from each parent list in one pass rather than looking up the index of each object in turn.
+ * The caller is responsible for including all the objects that have to be deleted together, such as the connections of a diagram object.
+ *
+ * @author Phillip Beauvoir
+ */
+public class DeleteObjectsCommand extends ScriptCommand {
+
+    private List<ScriptCommand> connectionCommands = new ArrayList<>();
+    private ListRemoval diagramObjectsRemoval = new ListRemoval();
+    private List<ScriptCommand> relationshipCommands = new ArrayList<>();
+    private ListRemoval folderObjectsRemoval = new ListRemoval();
+
+    /**
+     * @param model The model that the objects belong to
+     * @param objects The diagram connections, diagram objects and folder objects to delete
+     */
+    public DeleteObjectsCommand(IArchimateModel model, Collection<? extends EObject> objects) {
+        super("delete", model); //$NON-NLS-1$
+
+        for(EObject eObject : objects) {
+            if(eObject instanceof IDiagramModelConnection connection) {
+                connectionCommands.add(new DisconnectConnectionCommand(connection));
+            }
+            else if(eObject instanceof IDiagramModelObject) {
+                diagramObjectsRemoval.add(eObject);
+            }
+            else {
+                if(eObject instanceof IArchimateRelationship relationship) {
+                    relationshipCommands.add(new DisconnectRelationshipCommand(relationship));
+                }
+                folderObjectsRemoval.add(eObject);
+            }
+        }
+    }
+
+    @Override
+    public void perform() {
+        for(ScriptCommand cmd : connectionCommands) {
+            cmd.perform();
+        }
+
+        diagramObjectsRemoval.perform();
+
+        for(ScriptCommand cmd : relationshipCommands) {
+            cmd.perform();
+        }
+
+        folderObjectsRemoval.perform();
+    }
+
+    @Override
+    public void undo() {
+        folderObjectsRemoval.undo();
+
+        for(int i = relationshipCommands.size() - 1; i >= 0; i--) {
+            relationshipCommands.get(i).undo();
+        }
+
+        diagramObjectsRemoval.undo();
+
+        for(int i = connectionCommands.size() - 1; i >= 0; i--) {
+            connectionCommands.get(i).undo();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+
+        for(ScriptCommand cmd : connectionCommands) {
+            cmd.dispose();
+        }
+
+        for(ScriptCommand cmd : relationshipCommands) {
+            cmd.dispose();
+        }
+
+        connectionCommands = null;
+        relationshipCommands = null;
+        diagramObjectsRemoval = null;
+        folderObjectsRemoval = null;
+    }
+
+    /**
+     * Removes objects from their parents' containment lists and adds them back at the same positions on undo
+     */
+    private static class ListRemoval {
+        private List<EObject> objects = new ArrayList<>();
+
+        // Map of parent list -> positions and objects removed from that list, in ascending order of position
+        private Map<EList<EObject>, List<Integer>> removedPositions;
+        private Map<EList<EObject>, List<EObject>> removedObjects;
+
+        void add(EObject eObject) {
+            objects.add(eObject);
+        }
+
+        @SuppressWarnings("unchecked")
+        void perform() {
+            removedPositions = new IdentityHashMap<>();
+            removedObjects = new IdentityHashMap<>();
+
+            // Group the objects by their parent list. Objects might already have been deleted.
+            Map<EList<EObject>, Set<EObject>> groups = new IdentityHashMap<>();
+            for(EObject eObject : objects) {
+                if(eObject.eContainer() != null) {
+                    EList<EObject> list = (EList<EObject>)eObject.eContainer().eGet(eObject.eContainmentFeature());
+                    groups.computeIfAbsent(list, l -> new HashSet<>()).add(eObject);
+                }
+            }
+
+            for(Map.Entry<EList<EObject>, Set<EObject>> entry : groups.entrySet()) {
+                EList<EObject> list = entry.getKey();
+                Set<EObject> set = entry.getValue();
+
+                // Find the positions in one pass
+                List<Integer> positions = new ArrayList<>();
+                List<EObject> removed = new ArrayList<>();
+                for(int i = 0; i < list.size(); i++) {
+                    if(set.contains(list.get(i))) {
+                        positions.add(i);
+                        removed.add(list.get(i));
+                    }
+                }
+
+                // Remove from the end so that the positions don't change
+                for(int i = positions.size() - 1; i >= 0; i--) {
+                    list.remove((int)positions.get(i));
+                }
+
+                removedPositions.put(list, positions);
+                removedObjects.put(list, removed);
+            }
+        }
+
+        void undo() {
+            if(removedPositions == null) {
+                return;
+            }
+
+            // Add back in ascending order so that each object goes back to its old position
+            for(Map.Entry<EList<EObject>, List<Integer>> entry : removedPositions.entrySet()) {
+                EList<EObject> list = entry.getKey();
+                List<Integer> positions = entry.getValue();
+                List<EObject> removed = removedObjects.get(list);
+
+                for(int i = 0; i < positions.size(); i++) {
+                    list.add(positions.get(i), removed.get(i));
+                }
+            }
+        }
+    }
+}
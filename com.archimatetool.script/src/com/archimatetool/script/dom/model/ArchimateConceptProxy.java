@@ -5,6 +5,7 @@
  */
 package com.archimatetool.script.dom.model;
 
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.osgi.util.NLS;
 
 import com.archimatetool.editor.model.DiagramModelUtils;
@@ -13,7 +14,6 @@ import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IDiagramModel;
-import com.archimatetool.model.IDiagramModelArchimateComponent;
 import com.archimatetool.model.IProfile;
 import com.archimatetool.model.util.ArchimateModelUtils;
 import com.archimatetool.script.ArchiScriptException;
@@ -69,7 +69,7 @@ public abstract class ArchimateConceptProxy extends EObjectProxy {
     protected EObjectProxyCollection outRels() {
         EObjectProxyCollection list = new EObjectProxyCollection();
         for(IArchimateRelationship r : getEObject().getSourceRelationships()) {
-            list.add(new ArchimateRelationshipProxy(r));
+            list.add(EObjectProxy.get(r));
         }
         return list;
     }
@@ -77,7 +77,7 @@ public abstract class ArchimateConceptProxy extends EObjectProxy {
     protected EObjectProxyCollection inRels() {
         EObjectProxyCollection list = new EObjectProxyCollection();
         for(IArchimateRelationship r : getEObject().getTargetRelationships()) {
-            list.add(new ArchimateRelationshipProxy(r));
+            list.add(EObjectProxy.get(r));
         }
         return list;
     }
@@ -85,11 +85,10 @@ public abstract class ArchimateConceptProxy extends EObjectProxy {
     protected EObjectProxyCollection objectRefs() {
         EObjectProxyCollection list = new EObjectProxyCollection();
         
+        // Get the diagram components that reference this concept from the concept rather than searching all diagram models
         if(getEObject().getArchimateModel() != null) {
-            for(IDiagramModel dm : getEObject().getArchimateModel().getDiagramModels()) {
-                for(IDiagramModelArchimateComponent dmc : DiagramModelUtils.findDiagramModelComponentsForArchimateConcept(dm, getEObject())) {
-                    list.add(EObjectProxy.get(dmc));
-                }
+            for(EObject dmc : ModelUtil.getInDiagramModelOrder(getEObject().getArchimateModel(), getEObject().getReferencingDiagramComponents())) {
+                list.add(EObjectProxy.get(dmc));
             }
         }
         
@@ -76,8 +76,9 @@ public class ArchimateElementProxy extends ArchimateConceptProxy {
             ((ArchimateRelationshipProxy)inRel).setTarget(newElementProxy, false);
         }
 
-        // Store the old proxy reference for later
-        ArchimateConceptProxy oldProxy = (ArchimateConceptProxy)EObjectProxy.get(getEObject());
+        // Store the old element and a new proxy for it for later. This is not the cached proxy which is this one.
+        IArchimateElement oldElement = getEObject();
+        ArchimateConceptProxy oldProxy = new ArchimateElementProxy(oldElement);
         
         // Set all diagram objects to the new element
         for(EObjectProxy dmoProxy : objectRefs()) {
@@ -89,12 +90,12 @@ public class ArchimateElementProxy extends ArchimateConceptProxy {
         CommandHandler.executeCommand(new ScriptCommand("set", getArchimateModel()) { //$NON-NLS-1$
             @Override
             public void perform() {
-                setEObject(newElement);
+                replaceEObject(newElement);
             }
 
             @Override
             public void undo() {
-                setEObject(oldProxy.getEObject());
+                replaceEObject(oldElement);
             }
         });
 
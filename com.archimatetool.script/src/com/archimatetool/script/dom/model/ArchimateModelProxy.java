@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.ui.PlatformUI;
@@ -28,6 +29,8 @@ import com.archimatetool.modelimporter.ImportException;
 import com.archimatetool.modelimporter.ModelImporter;
 import com.archimatetool.modelimporter.StatusMessage;
 import com.archimatetool.script.ArchiScriptException;
+import com.archimatetool.script.RefreshUIHandler;
+import com.archimatetool.script.RunReport;
 import com.archimatetool.script.commands.CommandHandler;
 import com.archimatetool.script.commands.ScriptCommandWrapper;
 import com.archimatetool.script.commands.SetCommand;
@@ -323,6 +326,35 @@ public class ArchimateModelProxy extends EObjectProxy {
         return this;
     }
 
+    /**
+     * Find all concepts, views and folders in the model that have a property with the given key and value.
+     * This uses the model's property index rather than testing every object.
+     * @param key The property key
+     * @param value The property value. If this is null then objects with any value for the key are found
+     * @return A collection of the matching objects
+     */
+    public EObjectProxyCollection findByProperty(String key, String value) {
+        EObjectProxyCollection list = new EObjectProxyCollection();
+        
+        for(EObject eObject : ModelIndex.get(getEObject()).getObjectsByProperty(key, value)) {
+            EObjectProxy proxy = EObjectProxy.get(eObject);
+            if(proxy != null) {
+                list.add(proxy);
+            }
+        }
+        
+        return list;
+    }
+    
+    /**
+     * Find all concepts, views and folders in the model that have a property with the given key and any value
+     * @param key The property key
+     * @return A collection of the matching objects
+     */
+    public EObjectProxyCollection findByProperty(String key) {
+        return findByProperty(key, null);
+    }
+    
     // Expose find methods as public
     
     @Override
@@ -342,13 +374,67 @@ public class ArchimateModelProxy extends EObjectProxy {
     
     @Override
     public EObjectProxyCollection find(String selector) {
-        // If selector is id (#) or concepts, views and folders (*) then filter on all the model's objects
-        if(selector != null && (selector.startsWith("#") || selector.equals("*"))) { //$NON-NLS-1$ //$NON-NLS-2$
+        RefreshUIHandler.refresh();
+        RunReport.countSelectorQuery();
+        
+        // If selector is id (#) then get the object from the model's index
+        if(selector != null && selector.startsWith("#")) { //$NON-NLS-1$
+            return find(ModelIndex.get(getEObject()).getObjectById(selector.substring(1)));
+        }
+        
+        // If selector is concepts, views and folders (*) then filter on all the model's objects
+        if("*".equals(selector)) { //$NON-NLS-1$
             return super.find(selector);
         }
         
+        // If selector is a compound selector then test only the candidate objects from the model's index if it can use it
+        if(SelectorFilterFactory.getInstance().getFilter(selector).orElse(null) instanceof CompoundSelectorFilter filter) {
+            List<EObject> candidates = filter.getCandidates(ModelIndex.get(getEObject()));
+            if(candidates == null) {
+                return filterModelTreeObjects(super.find(selector));
+            }
+            
+            EObjectProxyCollection list = new EObjectProxyCollection();
+            
+            for(EObject eObject : candidates) {
+                if(filter.accept(eObject)) {
+                    EObjectProxy proxy = EObjectProxy.get(eObject);
+                    if(proxy != null) {
+                        list.add(proxy);
+                    }
+                }
+            }
+            
+            return filterModelTreeObjects(list);
+        }
+        
+        // If selector is a class type then get the objects of that type from the model's index
+        EClass eClass = SelectorFilterFactory.getInstance().getTypeClass(selector);
+        if(eClass != null) {
+            EObjectProxyCollection list = new EObjectProxyCollection();
+            
+            for(EObject eObject : ModelIndex.get(getEObject()).getObjectsByType(eClass)) {
+                EObjectProxy proxy = EObjectProxy.get(eObject);
+                if(proxy != null) {
+                    list.add(proxy);
+                }
+            }
+            
+            return list;
+        }
+        
         // Else, as this is the model we will additionally filter only on concepts, views and folders
-        return super.find(selector).filter("*"); //$NON-NLS-1$
+        return filterModelTreeObjects(super.find(selector));
+    }
+    
+    /**
+     * @return The concepts, views and folders in the collection.
+     *         This is part of find() so it is not counted as another selector query as calling filter("*") would be.
+     */
+    private static EObjectProxyCollection filterModelTreeObjects(EObjectProxyCollection collection) {
+        ProxyCollector collector = new ProxyCollector("*"); //$NON-NLS-1$
+        collector.addAll(collection);
+        return collector.getCollection();
     }
     
     /**
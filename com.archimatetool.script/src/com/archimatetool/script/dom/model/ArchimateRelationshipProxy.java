@@ -233,8 +233,9 @@ public class ArchimateRelationshipProxy extends ArchimateConceptProxy implements
             ((ArchimateRelationshipProxy)proxy).setTarget(newRelationshipProxy, false);
         }
 
-        // Store old proxy
-        ArchimateConceptProxy oldProxy = (ArchimateConceptProxy)EObjectProxy.get(getEObject());
+        // Store the old relationship and a new proxy for it. This is not the cached proxy which is this one.
+        IArchimateRelationship oldRelationship = getEObject();
+        ArchimateConceptProxy oldProxy = new ArchimateRelationshipProxy(oldRelationship);
         
         // Update all diagram connections
         for(EObjectProxy proxy : objectRefs()) {
@@ -247,12 +248,12 @@ public class ArchimateRelationshipProxy extends ArchimateConceptProxy implements
             @Override
             public void perform() {
                 getEObject().disconnect();
-                setEObject(newRelationship);
+                replaceEObject(newRelationship);
             }
 
             @Override
             public void undo() {
-                setEObject(oldProxy.getEObject());
+                replaceEObject(oldRelationship);
                 getEObject().reconnect();
             }
         });
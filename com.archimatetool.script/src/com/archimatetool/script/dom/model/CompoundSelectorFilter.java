@@ -0,0 +1,551 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IDocumentable;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.INameable;
+import com.archimatetool.model.IProfile;
+import com.archimatetool.model.IProperties;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.script.dom.model.SelectorFilterFactory.ISelectorFilter;
+
+/**
+ * Compound Selector Filter
+ * 
+ * A CSS like selector made up of:
+ * 
+ * <pre>
+ * a, b                 objects matching selector a or selector b
+ * a b                  objects matching b that have an ancestor matching a
+ * a > b                objects matching b whose parent matches a
+ * type                 class type as for a single selector, for example "element", "business-actor" or "*"
+ * [key]                objects that have a value for the attribute or property "key"
+ * [key=value]          attribute or property "key" is equal to value
+ * [key!=value]         attribute or property "key" is not equal to value
+ * [key^=value]         attribute or property "key" starts with value
+ * [key$=value]         attribute or property "key" ends with value
+ * [key*=value]         attribute or property "key" contains value
+ * :has(a)              objects that have a descendant matching selector a
+ * </pre>
+ * 
+ * For example: <code>folder > business-actor[Owner^=IT]:has(...), view[name*=Overview]</code>
+ * 
+ * The keys "id", "name", "documentation", "type" and "specialization" are object attributes and all other keys are properties.
+ * A property that has the same key as an attribute can be written as "prop:key", for example <code>[prop:name=value]</code>.
+ * Keys and values can be quoted with "" or '' if they contain spaces or special characters.
+ * 
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+class CompoundSelectorFilter implements ISelectorFilter, IModelConstants {
+
+    private static final String PROPERTY_PREFIX = "prop:";
+    
+    /**
+     * A single selector made up of one or more compounds joined by combinators. Objects are tested from right to left.
+     */
+    private static class ComplexSelector {
+        private List<Compound> compounds = new ArrayList<>();
+        private List<Boolean> childCombinators = new ArrayList<>(); // true if child ">", false if descendant " "
+        
+        boolean accept(EObject eObject) {
+            int last = compounds.size() - 1;
+            return compounds.get(last).accept(eObject) && acceptAncestors(last - 1, eObject);
+        }
+        
+        private boolean acceptAncestors(int index, EObject eObject) {
+            if(index < 0) {
+                return true;
+            }
+            
+            Compound compound = compounds.get(index);
+            
+            // Parent must match
+            if(childCombinators.get(index)) {
+                EObject parent = eObject.eContainer();
+                return parent != null && compound.accept(parent) && acceptAncestors(index - 1, parent);
+            }
+            
+            // Any ancestor must match
+            for(EObject ancestor = eObject.eContainer(); ancestor != null; ancestor = ancestor.eContainer()) {
+                if(compound.accept(ancestor) && acceptAncestors(index - 1, ancestor)) {
+                    return true;
+                }
+            }
+            
+            return false;
+        }
+        
+        /**
+         * The last compound is the one that selected objects have to match
+         */
+        Compound getSubject() {
+            return compounds.get(compounds.size() - 1);
+        }
+    }
+    
+    /**
+     * An optional class type followed by any number of attribute, property or :has() predicates
+     */
+    private static class Compound {
+        private List<ISelectorFilter> predicates = new ArrayList<>();
+        private EClass typeClass; // Set if the type can be looked up in a ModelIndex
+        private String id;        // Set if there is an [id=value] predicate
+        private String propertyKey, propertyValue; // Set if there is a [key] or [key=value] property predicate
+        
+        boolean accept(EObject eObject) {
+            for(ISelectorFilter predicate : predicates) {
+                if(!predicate.accept(eObject)) {
+                    return false;
+                }
+            }
+            
+            return true;
+        }
+    }
+    
+    private List<ComplexSelector> selectors;
+    
+    /**
+     * @return true if the selector should be parsed as a compound selector rather than as a single selector.
+     *         Id (#) and name (.) selectors and "type.name" selectors are always single selectors because names can contain any character.
+     */
+    static boolean isCompoundSelector(String selector) {
+        if(selector == null || selector.startsWith("#") || selector.startsWith(".")) {
+            return false;
+        }
+        
+        // Type followed by a name
+        int typeLength = getTypeLength(selector, 0);
+        if(typeLength < selector.length() && selector.charAt(typeLength) == '.') {
+            return false;
+        }
+        
+        for(char c : selector.toCharArray()) {
+            if(c == '[' || c == ',' || c == '>' || c == ':' || Character.isWhitespace(c)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @return A CompoundSelectorFilter for the selector or null if the selector is not valid
+     */
+    static CompoundSelectorFilter create(String selector) {
+        try {
+            Parser parser = new Parser(selector);
+            List<ComplexSelector> selectors = parser.parseSelectorList();
+            if(!parser.isAtEnd()) {
+                return null;
+            }
+            return new CompoundSelectorFilter(selectors);
+        }
+        catch(IllegalArgumentException ex) {
+            return null;
+        }
+    }
+    
+    private CompoundSelectorFilter(List<ComplexSelector> selectors) {
+        this.selectors = selectors;
+    }
+    
+    @Override
+    public boolean accept(EObject eObject) {
+        for(ComplexSelector selector : selectors) {
+            if(selector.accept(eObject)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Get the smallest set of candidate objects from the index that could match this selector.
+     * For each selector in the list an [id=value] predicate is used first, then a [key] or [key=value] property predicate, and then the class type.
+     * The candidates still have to be tested with accept().
+     * 
+     * @return The candidate objects in the order of the model tree or null if a selector can't be looked up in the index and all objects have to be tested
+     */
+    List<EObject> getCandidates(ModelIndex index) {
+        Set<EObject> candidates = new LinkedHashSet<>();
+        
+        for(ComplexSelector selector : selectors) {
+            Compound subject = selector.getSubject();
+            
+            if(subject.id != null) {
+                EObject eObject = index.getObjectById(subject.id);
+                if(eObject != null) {
+                    candidates.add(eObject);
+                }
+            }
+            else if(subject.propertyKey != null) {
+                candidates.addAll(index.getObjectsByProperty(subject.propertyKey, subject.propertyValue));
+            }
+            else if(subject.typeClass != null) {
+                candidates.addAll(index.getObjectsByType(subject.typeClass));
+            }
+            else {
+                return null;
+            }
+        }
+        
+        List<EObject> list = new ArrayList<>(candidates);
+        
+        // The candidates of each selector are in tree order but together they are not
+        if(selectors.size() > 1) {
+            index.sortInTreeOrder(list);
+        }
+        
+        return list;
+    }
+    
+    // ========================================= Predicates =========================================
+    
+    /**
+     * @return true if eObject has a descendant that matches one of the selectors
+     */
+    private static ISelectorFilter createHasPredicate(List<ComplexSelector> selectors) {
+        CompoundSelectorFilter filter = new CompoundSelectorFilter(selectors);
+        
+        return eObject -> {
+            for(Iterator<EObject> iter = eObject.eAllContents(); iter.hasNext();) {
+                if(filter.accept(iter.next())) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+    
+    /**
+     * @param key The attribute or property key
+     * @param operator The operator or null if testing that the key has a value
+     * @param value The value to test
+     */
+    private static ISelectorFilter createKeyPredicate(String key, String operator, String value) {
+        // Has a value
+        if(operator == null) {
+            return isAttribute(key) ? eObject -> isSet(getAttribute(eObject, key))
+                                    : eObject -> !getPropertyValues(eObject, getPropertyKey(key)).isEmpty();
+        }
+        
+        // Not equals means that no value is equal
+        if(operator.equals("!=")) {
+            ISelectorFilter equals = createKeyPredicate(key, "=", value);
+            return eObject -> !equals.accept(eObject);
+        }
+        
+        BiPredicate<String, String> test = switch(operator) {
+            case "=" -> String::equals;
+            case "^=" -> String::startsWith;
+            case "$=" -> String::endsWith;
+            case "*=" -> String::contains;
+            default -> throw new IllegalArgumentException("Unknown operator: " + operator);
+        };
+        
+        if(isAttribute(key)) {
+            return eObject -> {
+                String attribute = getAttribute(eObject, key);
+                return attribute != null && test.test(attribute, value);
+            };
+        }
+        
+        String propertyKey = getPropertyKey(key);
+        
+        return eObject -> {
+            for(String propertyValue : getPropertyValues(eObject, propertyKey)) {
+                if(propertyValue != null && test.test(propertyValue, value)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+    
+    private static boolean isAttribute(String key) {
+        return switch(key) {
+            case ID, NAME, DOCUMENTATION, TYPE, SPECIALIZATION -> true;
+            default -> false;
+        };
+    }
+    
+    private static String getPropertyKey(String key) {
+        return key.startsWith(PROPERTY_PREFIX) ? key.substring(PROPERTY_PREFIX.length()) : key;
+    }
+    
+    private static boolean isSet(String s) {
+        return s != null && s.length() > 0;
+    }
+    
+    /**
+     * @return The value of the attribute. As for EObjectProxy this is the referenced concept's value for documentation, type and specialization.
+     */
+    private static String getAttribute(EObject eObject, String key) {
+        EObject referenced = SelectorFilterFactory.getReferencedObject(eObject);
+        
+        return switch(key) {
+            case ID -> eObject instanceof IIdentifier identifier ? identifier.getId() : null;
+            case NAME -> eObject instanceof INameable nameable ? nameable.getName() : null;
+            case DOCUMENTATION -> referenced instanceof IDocumentable documentable ? documentable.getDocumentation() : null;
+            case TYPE -> referenced != null ? ModelUtil.getKebabCase(referenced.eClass().getName()) : null;
+            case SPECIALIZATION -> {
+                IProfile profile = referenced instanceof IArchimateConcept concept ? concept.getPrimaryProfile() : null;
+                yield profile != null ? profile.getName() : null;
+            }
+            default -> null;
+        };
+    }
+    
+    /**
+     * @return The values of all properties with the key. As for EObjectProxy these are the referenced concept's properties.
+     */
+    private static List<String> getPropertyValues(EObject eObject, String key) {
+        List<String> list = new ArrayList<>();
+        
+        if(SelectorFilterFactory.getReferencedObject(eObject) instanceof IProperties properties) {
+            for(IProperty property : properties.getProperties()) {
+                if(Objects.equals(property.getKey(), key)) {
+                    list.add(property.getValue());
+                }
+            }
+        }
+        
+        return list;
+    }
+    
+    // ========================================= Parser =========================================
+    
+    /**
+     * @return The length of a class type or "*" at the start position, or 0 if there isn't one
+     */
+    private static int getTypeLength(String selector, int start) {
+        if(selector.startsWith("*", start)) {
+            return 1;
+        }
+        
+        int end = start;
+        while(end < selector.length() && (Character.isLowerCase(selector.charAt(end)) || selector.charAt(end) == '-')) {
+            end++;
+        }
+        
+        return end - start;
+    }
+    
+    /**
+     * Recursive descent parser. Throws IllegalArgumentException if the selector is not valid.
+     */
+    private static class Parser {
+        private String selector;
+        private int pos;
+        
+        Parser(String selector) {
+            this.selector = selector;
+        }
+        
+        boolean isAtEnd() {
+            skipWhitespace();
+            return pos >= selector.length();
+        }
+        
+        // selector-list := complex ("," complex)*
+        List<ComplexSelector> parseSelectorList() {
+            List<ComplexSelector> list = new ArrayList<>();
+            list.add(parseComplex());
+            skipWhitespace();
+            
+            while(consume(',')) {
+                list.add(parseComplex());
+                skipWhitespace();
+            }
+            
+            return list;
+        }
+        
+        // complex := compound (combinator compound)*
+        private ComplexSelector parseComplex() {
+            ComplexSelector complex = new ComplexSelector();
+            
+            skipWhitespace();
+            complex.compounds.add(parseCompound());
+            
+            while(true) {
+                boolean hadWhitespace = skipWhitespace();
+                
+                if(consume('>')) {
+                    skipWhitespace();
+                    complex.childCombinators.add(true);
+                    complex.compounds.add(parseCompound());
+                }
+                else if(hadWhitespace && pos < selector.length() && peek() != ',' && peek() != ')') {
+                    complex.childCombinators.add(false);
+                    complex.compounds.add(parseCompound());
+                }
+                else {
+                    break;
+                }
+            }
+            
+            return complex;
+        }
+        
+        // compound := type? ("[" key (operator value)? "]" | ":has(" selector-list ")")*
+        private Compound parseCompound() {
+            Compound compound = new Compound();
+            
+            int typeLength = getTypeLength(selector, pos);
+            if(typeLength > 0) {
+                String type = selector.substring(pos, pos + typeLength);
+                pos += typeLength;
+                compound.predicates.add(SelectorFilterFactory.getInstance().getFilter(type).orElseThrow(IllegalArgumentException::new));
+                compound.typeClass = SelectorFilterFactory.getInstance().getTypeClass(type);
+            }
+            
+            while(pos < selector.length()) {
+                if(consume('[')) {
+                    parseKeyPredicate(compound);
+                }
+                else if(selector.startsWith(":has(", pos)) {
+                    pos += ":has(".length();
+                    compound.predicates.add(createHasPredicate(parseSelectorList()));
+                    skipWhitespace();
+                    expect(')');
+                }
+                else {
+                    break;
+                }
+            }
+            
+            if(compound.predicates.isEmpty()) {
+                throw new IllegalArgumentException("Expected a selector at position " + pos);
+            }
+            
+            return compound;
+        }
+        
+        private void parseKeyPredicate(Compound compound) {
+            skipWhitespace();
+            String key = parseString("=!^$*]");
+            skipWhitespace();
+            
+            if(key.isEmpty()) {
+                throw new IllegalArgumentException("Expected a key at position " + pos);
+            }
+            
+            // Has a value
+            if(consume(']')) {
+                compound.predicates.add(createKeyPredicate(key, null, null));
+                if(!isAttribute(key)) {
+                    compound.propertyKey = getPropertyKey(key);
+                }
+                return;
+            }
+            
+            String operator = null;
+            for(String op : new String[] { "=", "!=", "^=", "$=", "*=" }) {
+                if(selector.startsWith(op, pos)) {
+                    operator = op;
+                    pos += op.length();
+                    break;
+                }
+            }
+            
+            if(operator == null) {
+                throw new IllegalArgumentException("Expected an operator at position " + pos);
+            }
+            
+            skipWhitespace();
+            String value = parseString("]");
+            skipWhitespace();
+            expect(']');
+            
+            compound.predicates.add(createKeyPredicate(key, operator, value));
+            
+            // Store an id or property so that it can be looked up in the index
+            if(operator.equals("=")) {
+                if(ID.equals(key)) {
+                    compound.id = value;
+                }
+                else if(!isAttribute(key)) {
+                    compound.propertyKey = getPropertyKey(key);
+                    compound.propertyValue = value;
+                }
+            }
+        }
+        
+        /**
+         * Parse a quoted string, or an unquoted string up to one of the terminator characters with whitespace trimmed
+         */
+        private String parseString(String terminators) {
+            if(pos < selector.length() && (peek() == '"' || peek() == '\'')) {
+                char quote = selector.charAt(pos++);
+                StringBuilder sb = new StringBuilder();
+                
+                while(pos < selector.length() && peek() != quote) {
+                    char c = selector.charAt(pos++);
+                    if(c == '\\' && pos < selector.length()) {
+                        c = selector.charAt(pos++);
+                    }
+                    sb.append(c);
+                }
+                
+                expect(quote);
+                return sb.toString();
+            }
+            
+            int start = pos;
+            while(pos < selector.length() && terminators.indexOf(peek()) == -1) {
+                pos++;
+            }
+            
+            return selector.substring(start, pos).trim();
+        }
+        
+        private char peek() {
+            return selector.charAt(pos);
+        }
+        
+        private boolean consume(char c) {
+            if(pos < selector.length() && peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+        
+        private void expect(char c) {
+            if(!consume(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at position " + pos);
+            }
+        }
+        
+        /**
+         * @return true if any whitespace was skipped
+         */
+        private boolean skipWhitespace() {
+            int start = pos;
+            while(pos < selector.length() && Character.isWhitespace(peek())) {
+                pos++;
+            }
+            return pos > start;
+        }
+    }
+}
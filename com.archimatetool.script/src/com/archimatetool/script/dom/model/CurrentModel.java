@@ -11,6 +11,7 @@ import org.eclipse.ui.PlatformUI;
 import com.archimatetool.commandline.CommandLineState;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.script.ArchiScriptException;
+import com.archimatetool.script.ScriptRunContext;
 import com.archimatetool.script.WorkbenchPartTracker;
 import com.archimatetool.script.dom.IArchiScriptBinding;
 
@@ -25,19 +26,25 @@ import com.archimatetool.script.dom.IArchiScriptBinding;
  */
 public class CurrentModel extends ArchimateModelProxy implements IArchiScriptBinding {
     
-    private static CurrentModel instance;
-    
     /**
-     * Set the singleton instance's underlying model to the one in modelProxy
+     * Set the underlying model of the script run's current model to the one in modelProxy
      */
     static void setAsCurrentModel(ArchimateModelProxy modelProxy) {
-        instance.setEObject(modelProxy.getEObject());
+        ScriptRunContext context = ScriptRunContext.peek();
+        CurrentModel instance = context != null ? context.get(CurrentModel.class) : null;
+        if(instance != null) {
+            instance.setEObject(modelProxy.getEObject());
+        }
     }
     
     public CurrentModel() {
         super(null);
         
-        instance = this;
+        // This is the current model for the script run, if there is one
+        ScriptRunContext context = ScriptRunContext.peek();
+        if(context != null) {
+            context.put(CurrentModel.class, this);
+        }
         
         // If the workbench is running determine if there is an active part containing an IArchimateModel we can set this to
         if(PlatformUI.isWorkbenchRunning()) {
@@ -73,7 +80,12 @@ public class CurrentModel extends ArchimateModelProxy implements IArchiScriptBin
     
     @Override
     public void dispose() {
-        instance = null;    // Definitely need to set this to null for both Nashorn and GraalVM
+        // Definitely need to remove this for both Nashorn and GraalVM
+        ScriptRunContext context = ScriptRunContext.peek();
+        if(context != null && context.get(CurrentModel.class) == this) {
+            context.remove(CurrentModel.class);
+        }
+        
         setEObject(null);   // Set this to null because of a Nashorn memory leak
     }
 }
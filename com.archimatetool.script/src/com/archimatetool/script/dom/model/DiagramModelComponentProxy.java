@@ -94,7 +94,7 @@ public abstract class DiagramModelComponentProxy extends EObjectProxy {
         
         if(getEObject() instanceof IConnectable connectable) {
             for(IDiagramModelConnection dmc : connectable.getSourceConnections()) {
-                list.add(new DiagramModelConnectionProxy(dmc));
+                list.add(EObjectProxy.get(dmc));
             }
         }
         
@@ -109,7 +109,7 @@ public abstract class DiagramModelComponentProxy extends EObjectProxy {
         
         if(getEObject() instanceof IConnectable connectable) {
             for(IDiagramModelConnection dmc : connectable.getTargetConnections()) {
-                list.add(new DiagramModelConnectionProxy(dmc));
+                list.add(EObjectProxy.get(dmc));
             }
         }
         
@@ -7,8 +7,11 @@ package com.archimatetool.script.dom.model;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Predicate;
 
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.osgi.util.NLS;
 
@@ -209,10 +212,15 @@ public class DiagramModelObjectProxy extends DiagramModelComponentProxy {
     }
     
     @Override
-    protected EObjectProxyCollection find() {
-        // We don't include relationships
-        EObjectProxyCollection all = super.find();
-        return all.filter(ELEMENT);
+    boolean anyContents(Predicate<EObject> predicate) {
+        // We don't include relationships, only the diagram objects of elements
+        for(Iterator<EObject> iter = getEObject().eAllContents(); iter.hasNext();) {
+            if(iter.next() instanceof IDiagramModelArchimateObject dmo && predicate.test(dmo)) {
+                return true;
+            }
+        }
+        
+        return false;
     }
     
     public String getFillColor() {
@@ -6,13 +6,14 @@
 package com.archimatetool.script.dom.model;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.ui.PlatformUI;
 
-import com.archimatetool.editor.model.DiagramModelUtils;
 import com.archimatetool.editor.ui.services.EditorManager;
+import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IConnectable;
 import com.archimatetool.model.IDiagramModel;
@@ -131,7 +132,7 @@ public abstract class DiagramModelProxy extends EObjectProxy {
         for(Iterator<EObject> iter = getEObject().eAllContents(); iter.hasNext();) {
             EObject eObject = iter.next();
             if(eObject instanceof IDiagramModelConnection dmc) {
-                list.add(new DiagramModelConnectionProxy(dmc));
+                list.add(EObjectProxy.get(dmc));
             }
         }
         
@@ -141,11 +142,10 @@ public abstract class DiagramModelProxy extends EObjectProxy {
     protected EObjectProxyCollection objectRefs() {
         EObjectProxyCollection list = new EObjectProxyCollection();
         
+        // Get the diagram model references that reference this diagram model from the model's index rather than searching all diagram models
         if(getEObject().getArchimateModel() != null) {
-            for(IDiagramModel dm : getEObject().getArchimateModel().getDiagramModels()) {
-                for(IDiagramModelReference ref : DiagramModelUtils.findDiagramModelReferences(dm, getEObject())) {
-                    list.add(EObjectProxy.get(ref));
-                }
+            for(EObject ref : getReferences()) {
+                list.add(EObjectProxy.get(ref));
             }
         }
         
@@ -156,16 +156,22 @@ public abstract class DiagramModelProxy extends EObjectProxy {
         EObjectProxyCollection list = new EObjectProxyCollection();
         
         if(getEObject().getArchimateModel() != null) {
-            for(IDiagramModel dm : getEObject().getArchimateModel().getDiagramModels()) {
-                for(IDiagramModelReference ref : DiagramModelUtils.findDiagramModelReferences(dm, getEObject())) {
-                    list.add(EObjectProxy.get(ref.getDiagramModel()));
-                }
+            for(EObject ref : getReferences()) {
+                list.add(EObjectProxy.get(((IDiagramModelReference)ref).getDiagramModel()));
             }
         }
         
         return list;
     }
     
+    /**
+     * @return The diagram model references to this diagram model in the order of the model's diagram models and then tree order
+     */
+    private List<EObject> getReferences() {
+        IArchimateModel model = getEObject().getArchimateModel();
+        return ModelUtil.getInDiagramModelOrder(model, ModelIndex.get(model).getReferencingComponents(getEObject()));
+    }
+    
     @Override
     public void delete() {
         // Delete diagram references first
@@ -8,6 +8,7 @@ package com.archimatetool.script.dom.model;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.osgi.util.NLS;
@@ -34,6 +35,7 @@ import com.archimatetool.model.IProperties;
 import com.archimatetool.model.IProperty;
 import com.archimatetool.model.ISketchModel;
 import com.archimatetool.script.ArchiScriptException;
+import com.archimatetool.script.RunReport;
 import com.archimatetool.script.commands.AddPropertyCommand;
 import com.archimatetool.script.commands.CommandHandler;
 import com.archimatetool.script.commands.RemovePropertiesCommand;
@@ -50,7 +52,8 @@ public abstract class EObjectProxy implements IModelConstants, Comparable<EObjec
     private EObject fEObject;
     
     /**
-     * Factory method for correct type of EObjectProxy
+     * Factory method for correct type of EObjectProxy.
+     * The same proxy is returned for an eObject while the proxy is in use so that new proxies aren't created each time.
      * @param eObject
      * @return EObjectProxy type or null if not found
      */
@@ -59,6 +62,22 @@ public abstract class EObjectProxy implements IModelConstants, Comparable<EObjec
             return null;
         }
         
+        EObjectProxy proxy = ProxyCache.get(eObject);
+        
+        if(proxy != null && isUsable(proxy, eObject)) {
+            return proxy;
+        }
+        
+        proxy = create(eObject);
+        
+        // Another thread may have cached a proxy for the object since so use that one
+        return proxy != null ? ProxyCache.putIfAbsent(eObject, proxy, cached -> isUsable(cached, eObject)) : null;
+    }
+    
+    /**
+     * @return A new EObjectProxy of the correct type or null if not found
+     */
+    private static EObjectProxy create(EObject eObject) {
         return switch(eObject) {
             case IArchimateModel model                         -> new ArchimateModelProxy(model);
             case IArchimateElement element                     -> new ArchimateElementProxy(element);
@@ -77,7 +96,33 @@ public abstract class EObjectProxy implements IModelConstants, Comparable<EObjec
         };
     }
     
+    /**
+     * @return true if {@link #get(EObject)} returns a proxy for eObject. This doesn't create the proxy.
+     */
+    static boolean hasProxy(EObject eObject) {
+        return eObject instanceof IArchimateModel
+                || eObject instanceof IArchimateElement
+                || eObject instanceof IArchimateRelationship
+                || eObject instanceof IArchimateDiagramModel
+                || eObject instanceof ISketchModel
+                || eObject instanceof ICanvasModel
+                || eObject instanceof IDiagramModelObject
+                || eObject instanceof IDiagramModelConnection
+                || eObject instanceof IFolder;
+    }
+    
+    /**
+     * The cached proxy can't be used if it has been set to another eObject or the type of proxy has changed.
+     * A note's proxy depends on whether it is a legend.
+     * @return true if the cached proxy for eObject can be used
+     */
+    private static boolean isUsable(EObjectProxy proxy, EObject eObject) {
+        return proxy.fEObject == eObject
+                && (!(eObject instanceof IDiagramModelNote note) || note.isLegend() == proxy instanceof DiagramModelLegendProxy);
+    }
+    
     EObjectProxy(EObject eObject) {
+        RunReport.countProxy();
         setEObject(eObject);
     }
     
@@ -85,6 +130,15 @@ public abstract class EObjectProxy implements IModelConstants, Comparable<EObjec
         fEObject = eObject;
     }
     
+    /**
+     * Set the eObject of this proxy and make this the proxy returned by get() for the eObject.
+     * This is used when the eObject is replaced by a new one so that references to this proxy follow the new eObject.
+     */
+    protected void replaceEObject(EObject eObject) {
+        setEObject(eObject);
+        ProxyCache.put(eObject, this);
+    }
+    
     protected EObject getEObject() {
         return fEObject;
     }
@@ -162,21 +216,9 @@ public abstract class EObjectProxy implements IModelConstants, Comparable<EObjec
      * @return the collection of descendent objects or an empty list if no child objects.
      */
     protected EObjectProxyCollection find() {
-    	EObjectProxyCollection list = new EObjectProxyCollection();
-        
-        if(getEObject() == null) {
-            return list;
-        }
-
-        for(Iterator<EObject> iter = getEObject().eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            EObjectProxy proxy = EObjectProxy.get(eObject);
-            if(proxy != null) {
-                list.add(proxy);
-            }
-        }
-
-        return list;
+        ProxyCollector collector = new ProxyCollector();
+        collectContents(collector);
+        return collector.getCollection();
     }
     
     /**
@@ -185,7 +227,42 @@ public abstract class EObjectProxy implements IModelConstants, Comparable<EObjec
      * @return the collection of matched objects
      */
     protected EObjectProxyCollection find(String selector) {
-        return find().filter(selector);
+        ProxyCollector collector = new ProxyCollector(selector);
+        collectContents(collector);
+        return collector.getCollection();
+    }
+    
+    /**
+     * Add the descendent contents of this object that are found by {@link #find()} to a collector.
+     * The collector tests each EObject before getting its proxy and the iteration stops when the collector is done.
+     * @param collector The collector
+     */
+    final void collectContents(ProxyCollector collector) {
+        anyContents(eObject -> {
+            collector.add(eObject);
+            return collector.isDone();
+        });
+    }
+    
+    /**
+     * Test the descendent contents of this object that are found by {@link #find()}, stopping at the first match.
+     * Proxies are not got for the descendent objects.
+     * @param predicate The test for each descendent EObject
+     * @return true if predicate returns true for a descendent object
+     */
+    boolean anyContents(Predicate<EObject> predicate) {
+        if(getEObject() == null) {
+            return false;
+        }
+        
+        for(Iterator<EObject> iter = getEObject().eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            if(hasProxy(eObject) && predicate.test(eObject)) {
+                return true;
+            }
+        }
+        
+        return false;
     }
     
     /**
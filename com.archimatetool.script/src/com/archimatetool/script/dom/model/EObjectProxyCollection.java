@@ -6,12 +6,34 @@
 package com.archimatetool.script.dom.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.ui.PlatformUI;
+
+import com.archimatetool.editor.ui.services.EditorManager;
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelComponent;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.script.RefreshUIHandler;
+import com.archimatetool.script.RunReport;
+import com.archimatetool.script.commands.CommandHandler;
+import com.archimatetool.script.commands.DeleteObjectsCommand;
+import com.archimatetool.script.dom.model.SelectorFilterFactory.ISelectorFilter;
+
 
 /**
  * Extended Collection of EObjectProxy objects
@@ -35,38 +57,91 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
      * @return
      */
     public boolean is(String selector) {
-        return !filter(selector).isEmpty();
+        // Stop at the first match rather than filtering the whole collection
+        ISelectorFilter filter = SelectorFilterFactory.getInstance().getFilter(selector).orElse(null);
+        
+        if(filter != null) {
+            for(EObjectProxy object : this) {
+                if(filter.accept(object.getEObject())) {
+                    return true;
+                }
+            }
+        }
+        
+        return false;
     }
     
     /**
      * Delete all in collection
      */
     public EObjectProxyCollection delete() {
+        // Delete the objects that are in a model together in one command per model.
+        // This finds all the relationships and diagram components to delete in one pass rather than for each object,
+        // and each object is deleted once even if it is also deleted with another object in the collection.
+        Map<IArchimateModel, List<EObject>> modelObjects = new LinkedHashMap<>();
+        List<EObjectProxy> others = new ArrayList<>();
+        
         for(EObjectProxy object : this) {
+            IArchimateModel model = getModelForDelete(object);
+            if(model != null) {
+                modelObjects.computeIfAbsent(model, m -> new ArrayList<>()).add(object.getEObject());
+            }
+            else {
+                others.add(object);
+            }
+        }
+        
+        for(Entry<IArchimateModel, List<EObject>> entry : modelObjects.entrySet()) {
+            List<EObject> objects = ModelUtil.getObjectsToDelete(entry.getKey(), entry.getValue());
+            
+            if(PlatformUI.isWorkbenchRunning()) {
+                for(EObject eObject : objects) {
+                    if(eObject instanceof IDiagramModel dm) {
+                        EditorManager.closeDiagramEditor(dm); // important!!
+                    }
+                }
+            }
+            
+            CommandHandler.executeCommand(new DeleteObjectsCommand(entry.getKey(), objects));
+        }
+        
+        // Other objects, such as objects that are not in a model, are deleted one at a time
+        for(EObjectProxy object : others) {
             object.delete();
         }
         
         return this;
     }
     
+    /**
+     * @return The model of the object if it can be deleted with the other objects in its model, or null
+     */
+    private static IArchimateModel getModelForDelete(EObjectProxy object) {
+        EObject eObject = object.getEObject();
+        
+        // Only user folders can be deleted
+        if(eObject instanceof IFolder folder && folder.getType() != FolderType.USER) {
+            return null;
+        }
+        
+        if(eObject instanceof IArchimateConcept || eObject instanceof IDiagramModel || eObject instanceof IDiagramModelComponent || eObject instanceof IFolder) {
+            return ((IArchimateModelObject)eObject).getArchimateModel();
+        }
+        
+        return null;
+    }
+    
     /**
      * @return the set of matched objects
      */
     public EObjectProxyCollection find() {
-    	EObjectProxyCollection list = new EObjectProxyCollection();
-    	
-        // Use a temp LinkedHashSet for uniqueness and speed
-        Set<EObjectProxy> set = new LinkedHashSet<>();
-    	
+        ProxyCollector collector = new ProxyCollector();
+        
         for(EObjectProxy object : this) {
-            for(EObjectProxy child : object.find()) {
-                set.add(child);
-            }
+            object.collectContents(collector);
         }
-    	
-    	list.addAll(set);
-    	
-        return list;
+        
+        return collector.getCollection();
     }
     
     /**
@@ -74,7 +149,26 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
      * @return the set of matched objects
      */
     public EObjectProxyCollection find(String selector) {
-        return find().filter(selector);
+        RefreshUIHandler.refresh();
+        RunReport.countSelectorQuery();
+        
+        SelectorQueryEvent event = new SelectorQueryEvent();
+        event.begin();
+        
+        // Test the contents of each object against the selector as they are found
+        ProxyCollector collector = new ProxyCollector(selector);
+        
+        for(EObjectProxy object : this) {
+            if(collector.isDone()) {
+                break;
+            }
+            object.collectContents(collector);
+        }
+        
+        EObjectProxyCollection list = collector.getCollection();
+        
+        event.commit("find", selector, size(), list.size()); //$NON-NLS-1$
+        return list;
     }
     
     /**
@@ -83,24 +177,17 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
      * @return a filtered collection
      */
     public EObjectProxyCollection filter(String selector) {
-        EObjectProxyCollection list = new EObjectProxyCollection();
+        RefreshUIHandler.refresh();
+        RunReport.countSelectorQuery();
         
-        SelectorFilterFactory.getInstance().getFilter(selector).ifPresent(filter -> {
-            // Use a LinkedHashSet for uniqueness and speed
-            Set<EObjectProxy> set = new LinkedHashSet<>();
-            
-            for(EObjectProxy object : this) {
-                if(filter.accept(object.getEObject())) {
-                    set.add(object);
-                    if(filter.isUnique()) { // is unique so only one object is added
-                        break;
-                    }
-                }
-            }
-            
-            list.addAll(set);
-        });
+        SelectorQueryEvent event = new SelectorQueryEvent();
+        event.begin();
         
+        ProxyCollector collector = new ProxyCollector(selector);
+        collector.addAll(this);
+        EObjectProxyCollection list = collector.getCollection();
+        
+        event.commit("filter", selector, size(), list.size()); //$NON-NLS-1$
         return list;
     }
 
@@ -110,23 +197,18 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
      * @return
      */
     public EObjectProxyCollection filter(Predicate<EObjectProxy> predicate) {
-    	EObjectProxyCollection list = new EObjectProxyCollection();
+        ProxyCollector collector = new ProxyCollector();
     	if(predicate == null) {
-    		return list;
+    		return collector.getCollection();
     	}
     	
-        // Use a LinkedHashSet for uniqueness and speed
-        Set<EObjectProxy> set = new LinkedHashSet<>();
-
         for(EObjectProxy object : this) {
     		if(predicate.test(object)) {
-    		    set.add(object);
+    		    collector.add(object);
     		}
     	}
     	
-        list.addAll(set);
-        
-    	return list;
+    	return collector.getCollection();
     }
     
     /**
@@ -139,7 +221,79 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
     		return this;
     	}
     	
-    	return filter((EObjectProxy object) -> object.find().is(selector));
+        ProxyCollector collector = new ProxyCollector();
+        
+        // Test the descendants of each object and stop at the first match rather than getting proxies for all of them
+        SelectorFilterFactory.getInstance().getFilter(selector).ifPresent(filter -> {
+            for(EObjectProxy object : this) {
+                if(object.anyContents(filter::accept)) {
+                    collector.add(object);
+                }
+            }
+        });
+        
+        return collector.getCollection();
+    }
+    
+    /**
+     * Check whether any descendant of the matched objects matches the selector.
+     * This is the same as testing that find(selector) is not empty but stops at the first match.
+     * @param selector
+     * @return true if at least one descendant matches the selector
+     */
+    public boolean any(String selector) {
+        ISelectorFilter filter = SelectorFilterFactory.getInstance().getFilter(selector).orElse(null);
+        
+        if(filter != null) {
+            for(EObjectProxy object : this) {
+                if(object.anyContents(filter::accept)) {
+                    return true;
+                }
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Check that no descendant of the matched objects matches the selector.
+     * @param selector
+     * @return true if no descendant matches the selector
+     */
+    public boolean none(String selector) {
+        return !any(selector);
+    }
+    
+    /**
+     * Count the descendants of the matched objects that match the selector.
+     * This is the same as the size of find(selector) but doesn't create the collection.
+     * @param selector
+     * @return the number of matching descendants
+     */
+    public int count(String selector) {
+        ISelectorFilter filter = SelectorFilterFactory.getInstance().getFilter(selector).orElse(null);
+        if(filter == null) {
+            return 0;
+        }
+        
+        // Objects can be descendants of more than one matched object so count each one only once
+        Set<EObject> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        
+        for(EObjectProxy object : this) {
+            boolean done = object.anyContents(eObject -> {
+                if(filter.accept(eObject)) {
+                    matched.add(eObject);
+                    return filter.isUnique(); // is unique so only one object is counted
+                }
+                return false;
+            });
+            
+            if(done) {
+                break;
+            }
+        }
+        
+        return matched.size();
     }
     
     
@@ -178,63 +332,57 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
      * @return children as collection. Default is an empty list
      */
     public EObjectProxyCollection children() {
-        EObjectProxyCollection list = new EObjectProxyCollection();
-        
-        // Use a LinkedHashSet for uniqueness and speed
-        Set<EObjectProxy> set = new LinkedHashSet<>();
-        
-        for(EObjectProxy object : this) {
-            for(EObjectProxy child : object.children()) {
-                set.add(child);
-            }
-        }
-        
-        list.addAll(set);
-        
-        return list;
+        return children(new ProxyCollector());
     }
     
     /**
      * @return children with selector as collection. Default is an empty list
      */
     public EObjectProxyCollection children(String selector) {
-        return children().filter(selector);
+        return children(new ProxyCollector(selector));
+    }
+    
+    private EObjectProxyCollection children(ProxyCollector collector) {
+        for(EObjectProxy object : this) {
+            collector.addAll(object.children());
+        }
+        
+        return collector.getCollection();
     }
     
     /**
      * @return parent
      */
     public EObjectProxyCollection parent() {
-        EObjectProxyCollection list = new EObjectProxyCollection();
-        
-        for(EObjectProxy object : this) {
-            if(object.parent() != null) {
-                list.add(object.parent());
-            }
-        }
-        
-        return list;
+        return parent(new ProxyCollector());
     }
     
     public EObjectProxyCollection parent(String selector) {
-    	return parent().filter(selector);
+    	return parent(new ProxyCollector(selector));
     }
     
-    public EObjectProxyCollection parents() {
-        EObjectProxyCollection list = new EObjectProxyCollection();
-        
+    private EObjectProxyCollection parent(ProxyCollector collector) {
         for(EObjectProxy object : this) {
-        	EObjectProxyCollection parents = object.parents();
-            if(parents != null && !parents.isEmpty()) {
-                list.add(parents);
-            }
+            collector.add(object.parent());
         }
         
-        return list;
+        return collector.getCollection();
+    }
+    
+    public EObjectProxyCollection parents() {
+        return parents(new ProxyCollector());
     }
     
     public EObjectProxyCollection parents(String selector) {
-        return parents().filter(selector);
+        return parents(new ProxyCollector(selector));
+    }
+    
+    private EObjectProxyCollection parents(ProxyCollector collector) {
+        for(EObjectProxy object : this) {
+            collector.addAll(object.parents());
+        }
+        
+        return collector.getCollection();
     }
     
     /**
@@ -344,7 +492,12 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
      * @return
      */
     public EObjectProxyCollection each(Consumer<EObjectProxy> action) {
-    	forEach(action);
+        for(EObjectProxy object : this) {
+            // Update the UI and stop here if the user has cancelled the script
+            RefreshUIHandler.refresh();
+            action.accept(object);
+        }
+        
     	return this;
     }
     
@@ -385,21 +538,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection ends() {
-		EObjectProxyCollection list = new EObjectProxyCollection();
-		
-        // Use a LinkedHashSet for uniqueness and speed
-        Set<EObjectProxy> set = new LinkedHashSet<>();
-		
-		for(EObjectProxy object : this) {
-		    if(object instanceof IRelationshipProxy relationshipProxy) {
-		        set.add(relationshipProxy.getSource());
-		        set.add(relationshipProxy.getTarget());
-		    }
-        }
-		
-		list.addAll(set);
-		
-		return list;
+		return ends(new ProxyCollector(), true, true);
 	}
 	
 	/**
@@ -408,20 +547,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection sourceEnds() {
-		EObjectProxyCollection list = new EObjectProxyCollection();
-		
-        // Use a LinkedHashSet for uniqueness and speed
-        Set<EObjectProxy> set = new LinkedHashSet<>();
-		
-		for(EObjectProxy object : this) {
-            if(object instanceof IRelationshipProxy relationshipProxy) {
-                set.add(relationshipProxy.getSource());
-            }
-        }
-		
-		list.addAll(set);
-		
-		return list;
+		return ends(new ProxyCollector(), true, false);
 	}
 	
 	/**
@@ -430,20 +556,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection targetEnds() {
-		EObjectProxyCollection list = new EObjectProxyCollection();
-		
-        // Use a LinkedHashSet for uniqueness and speed
-        Set<EObjectProxy> set = new LinkedHashSet<>();
-        
-		for(EObjectProxy object : this) {
-            if(object instanceof IRelationshipProxy relationshipProxy) {
-                set.add(relationshipProxy.getTarget());
-            }
-        }
-		
-		list.addAll(set);
-		
-		return list;
+		return ends(new ProxyCollector(), false, true);
 	}
 	
 	/**
@@ -453,7 +566,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection ends(String selector) {
-		return ends().filter(selector);
+		return ends(new ProxyCollector(selector), true, true);
 	}
 	
 	/**
@@ -463,7 +576,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection sourceEnds(String selector) {
-		return sourceEnds().filter(selector);
+		return ends(new ProxyCollector(selector), true, false);
 	}
 	
 	/**
@@ -473,7 +586,22 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection targetEnds(String selector) {
-		return targetEnds().filter(selector);
+		return ends(new ProxyCollector(selector), false, true);
+	}
+	
+	private EObjectProxyCollection ends(ProxyCollector collector, boolean source, boolean target) {
+		for(EObjectProxy object : this) {
+		    if(object instanceof IRelationshipProxy relationshipProxy) {
+		        if(source) {
+		            collector.add(relationshipProxy.getSource());
+		        }
+		        if(target) {
+		            collector.add(relationshipProxy.getTarget());
+		        }
+		    }
+        }
+		
+		return collector.getCollection();
 	}
 	
 	/**
@@ -481,15 +609,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection objectRefs() {
-		EObjectProxyCollection list = new EObjectProxyCollection();
-		
-		for(EObjectProxy object : this) {
-            if(object.getInternal() instanceof IReferencedProxy refProxy) {
-                list.add(refProxy.objectRefs());
-            }
-        }
-		
-		return list;
+		return objectRefs(new ProxyCollector());
 	}
 	
 	/**
@@ -499,23 +619,25 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection objectRefs(String selector) {
-		return objectRefs().filter(selector);
+		return objectRefs(new ProxyCollector(selector));
 	}
 	
-	/**
-	 * Get the views in which each object in collection is referenced.
-	 * @return
-	 */
-	public EObjectProxyCollection viewRefs() {
-		EObjectProxyCollection list = new EObjectProxyCollection();
-		
+	private EObjectProxyCollection objectRefs(ProxyCollector collector) {
 		for(EObjectProxy object : this) {
             if(object.getInternal() instanceof IReferencedProxy refProxy) {
-                list.add(refProxy.viewRefs());
+                collector.addAll(refProxy.objectRefs());
             }
         }
 		
-		return list;
+		return collector.getCollection();
+	}
+	
+	/**
+	 * Get the views in which each object in collection is referenced.
+	 * @return
+	 */
+	public EObjectProxyCollection viewRefs() {
+		return viewRefs(new ProxyCollector());
 	}
 	
 	/**
@@ -525,7 +647,17 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection viewRefs(String selector) {
-		return viewRefs().filter(selector);
+		return viewRefs(new ProxyCollector(selector));
+	}
+	
+	private EObjectProxyCollection viewRefs(ProxyCollector collector) {
+		for(EObjectProxy object : this) {
+            if(object.getInternal() instanceof IReferencedProxy refProxy) {
+                collector.addAll(refProxy.viewRefs());
+            }
+        }
+		
+		return collector.getCollection();
 	}
 	
 	/**
@@ -534,16 +666,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection rels() {
-		EObjectProxyCollection list = new EObjectProxyCollection();
-		
-		for(EObjectProxy object : this) {
-		    if(object.getInternal() instanceof IConnectableProxy connectableProxy) {
-                list.add(connectableProxy.outRels());
-                list.add(connectableProxy.inRels());
-		    }
-        }
-		
-		return list;
+		return rels(new ProxyCollector(), true, true);
 	}
 	
 	/**
@@ -552,15 +675,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection inRels() {
-		EObjectProxyCollection list = new EObjectProxyCollection();
-		
-		for(EObjectProxy object : this) {
-            if(object.getInternal() instanceof IConnectableProxy connectableProxy) {
-                list.add(connectableProxy.inRels());
-            }
-        }
-		
-		return list;
+		return rels(new ProxyCollector(), false, true);
 	}
 	
 	/**
@@ -569,15 +684,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection outRels() {
-		EObjectProxyCollection list = new EObjectProxyCollection();
-		
-		for(EObjectProxy object : this) {
-            if(object.getInternal() instanceof IConnectableProxy connectableProxy) {
-                list.add(connectableProxy.outRels());
-            }
-        }
-		
-		return list;
+		return rels(new ProxyCollector(), true, false);
 	}
 	
 	/**
@@ -587,7 +694,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection rels(String selector) {
-		return rels().filter(selector);
+		return rels(new ProxyCollector(selector), true, true);
 	}
 	
 	/**
@@ -597,7 +704,7 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection inRels(String selector) {
-		return inRels().filter(selector);
+		return rels(new ProxyCollector(selector), false, true);
 	}
 	
 	/**
@@ -607,6 +714,21 @@ public class EObjectProxyCollection extends ArrayList<EObjectProxy> implements I
 	 * @return
 	 */
 	public EObjectProxyCollection outRels(String selector) {
-		return outRels().filter(selector);
+		return rels(new ProxyCollector(selector), true, false);
+	}
+	
+	private EObjectProxyCollection rels(ProxyCollector collector, boolean out, boolean in) {
+		for(EObjectProxy object : this) {
+		    if(object.getInternal() instanceof IConnectableProxy connectableProxy) {
+		        if(out) {
+		            collector.addAll(connectableProxy.outRels());
+		        }
+		        if(in) {
+		            collector.addAll(connectableProxy.inRels());
+		        }
+		    }
+        }
+		
+		return collector.getCollection();
 	}
 }
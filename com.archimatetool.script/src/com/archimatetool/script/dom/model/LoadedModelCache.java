@@ -0,0 +1,139 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+import com.archimatetool.editor.model.IEditorModelManager;
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * Cache of models loaded from file when there is no Workbench, used when scripts are run by a long running process such as the script daemon.
+ * 
+ * When enabled, a model that is loaded by one script is kept so that a later script that loads the same file does not have to load it again.
+ * A cached model is loaded again if the file has been modified. If models are not shared it is also loaded again if it was changed by a script,
+ * so that each script sees the model as it is on file. If models are shared, as they are by the scripts in a pipeline, changes are kept for later scripts.
+ * 
+ * The cache is disabled by default so that models loaded by a single command line run are not kept.
+ * 
+ * @author Phillip Beauvoir
+ */
+public class LoadedModelCache {
+    
+    private static boolean enabled;
+    private static boolean shareChanges;
+    
+    // Map of canonical file -> cached model. Access is synchronized on the map
+    private static Map<File, CachedModel> cache = new HashMap<>();
+    
+    private static class CachedModel {
+        long lastModified;
+        IArchimateModel model;
+        ChangeListener listener;
+        
+        CachedModel(long lastModified, IArchimateModel model, ChangeListener listener) {
+            this.lastModified = lastModified;
+            this.model = model;
+            this.listener = listener;
+        }
+    }
+    
+    /**
+     * Listens to the model and its contents and records whether anything has been changed
+     */
+    private static class ChangeListener extends EContentAdapter {
+        boolean changed;
+        
+        @Override
+        public void notifyChanged(Notification notification) {
+            super.notifyChanged(notification);
+            
+            if(!notification.isTouch() && notification.getEventType() != Notification.REMOVING_ADAPTER) {
+                changed = true;
+            }
+        }
+    }
+    
+    /**
+     * @param set If true models loaded from file are cached. If false the cache is cleared and models are not cached.
+     */
+    public static void setEnabled(boolean set) {
+        setEnabled(set, false);
+    }
+    
+    /**
+     * @param set If true models loaded from file are cached. If false the cache is cleared and models are not cached.
+     * @param share If true a cached model that has been changed by a script is kept with its changes, otherwise it is loaded again
+     */
+    public static void setEnabled(boolean set, boolean share) {
+        enabled = set;
+        shareChanges = share;
+        
+        if(!set) {
+            clear();
+        }
+    }
+    
+    /**
+     * @return true if models loaded from file are cached
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Remove all models from the cache
+     */
+    public static void clear() {
+        synchronized(cache) {
+            for(CachedModel cachedModel : cache.values()) {
+                cachedModel.model.eAdapters().remove(cachedModel.listener);
+            }
+            cache.clear();
+        }
+    }
+    
+    /**
+     * Load a model from file, or return the cached model if it has not been changed since it was loaded
+     * @param file The model file
+     * @return The model, or null if it could not be loaded
+     */
+    static IArchimateModel load(File file) throws IOException {
+        if(!enabled) {
+            return IEditorModelManager.INSTANCE.load(file);
+        }
+        
+        File key = file.getCanonicalFile();
+        long lastModified = key.lastModified();
+        
+        synchronized(cache) {
+            CachedModel cachedModel = cache.get(key);
+            if(cachedModel != null && cachedModel.lastModified == lastModified && (shareChanges || !cachedModel.listener.changed)) {
+                return cachedModel.model;
+            }
+            
+            if(cachedModel != null) {
+                cachedModel.model.eAdapters().remove(cachedModel.listener);
+                cache.remove(key);
+            }
+            
+            IArchimateModel model = IEditorModelManager.INSTANCE.load(file);
+            if(model != null) {
+                ChangeListener listener = new ChangeListener();
+                model.eAdapters().add(listener);
+                cache.put(key, new CachedModel(lastModified, model, listener));
+            }
+            
+            return model;
+        }
+    }
+}
@@ -56,7 +56,7 @@ public class Model {
         
         // Don't add a CommandStack or other adapters. These will be created if openInUI() is called
         
-        return new ArchimateModelProxy(model);
+        return (ArchimateModelProxy)EObjectProxy.get(model);
     }
     
     /**
@@ -71,21 +71,21 @@ public class Model {
             // Already open in UI
             for(IArchimateModel model : IEditorModelManager.INSTANCE.getModels()) {
                 if(file.equals(model.getFile())) {
-                    return new ArchimateModelProxy(model);
+                    return (ArchimateModelProxy)EObjectProxy.get(model);
                 }
             }
             
             // Load and Open it in UI
             IArchimateModel model = IEditorModelManager.INSTANCE.openModel(file);
             if(model != null) {
-                return new ArchimateModelProxy(model);
+                return (ArchimateModelProxy)EObjectProxy.get(model);
             }
         }
-        // No Workbench or UI, so load from file
+        // No Workbench or UI, so load from file or use the cached model if the cache is enabled
         else {
-            IArchimateModel model = IEditorModelManager.INSTANCE.load(file);
+            IArchimateModel model = LoadedModelCache.load(file);
             if(model != null) {
-                return new ArchimateModelProxy(model);
+                return (ArchimateModelProxy)EObjectProxy.get(model);
             }
         }
         
@@ -114,7 +114,7 @@ public class Model {
         
         if(PlatformUI.isWorkbenchRunning()) {
             IEditorModelManager.INSTANCE.getModels()
-                                        .forEach(model -> models.add(new ArchimateModelProxy(model)));
+                                        .forEach(model -> models.add((ArchimateModelProxy)EObjectProxy.get(model)));
         }
 
         return models;
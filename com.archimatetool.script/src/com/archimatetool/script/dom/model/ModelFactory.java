@@ -83,7 +83,7 @@ class ModelFactory implements IModelConstants {
 
             CommandHandler.executeCommand(new AddElementCommand(parentFolder, element));
             
-            return new ArchimateElementProxy(element);
+            return (ArchimateElementProxy)EObjectProxy.get(element);
         }
         
         throw new ArchiScriptException(NLS.bind(Messages.ArchimateModelProxy_0, type));
@@ -115,7 +115,7 @@ class ModelFactory implements IModelConstants {
             
             CommandHandler.executeCommand(new AddRelationshipCommand(parentFolder, relationship, source, target));
             
-            return new ArchimateRelationshipProxy(relationship);
+            return (ArchimateRelationshipProxy)EObjectProxy.get(relationship);
         }
         
         throw new ArchiScriptException(NLS.bind(Messages.ArchimateModelProxy_1, type));
@@ -141,7 +141,7 @@ class ModelFactory implements IModelConstants {
             }
         });
         
-        return new FolderProxy(folder);
+        return (FolderProxy)EObjectProxy.get(folder);
     }
     
     /**
@@ -459,7 +459,7 @@ class ModelFactory implements IModelConstants {
             }
         });
         
-        return new DiagramModelConnectionProxy(dmc);
+        return (DiagramModelConnectionProxy)EObjectProxy.get(dmc);
     }
 
     /**
@@ -500,7 +500,7 @@ class ModelFactory implements IModelConstants {
             }
         });
         
-        return new DiagramModelConnectionProxy(dmc);
+        return (DiagramModelConnectionProxy)EObjectProxy.get(dmc);
     }
  
     /**
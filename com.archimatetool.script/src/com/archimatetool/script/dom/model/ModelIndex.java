@@ -0,0 +1,473 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelArchimateComponent;
+import com.archimatetool.model.IDiagramModelReference;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.IProperties;
+import com.archimatetool.model.IProperty;
+
+/**
+ * Index of the objects in a model, kept up to date by listening to EMF notifications.
+ * 
+ * The index is created and attached to the model as an adapter the first time it is needed,
+ * and then stays attached for the life of the model so that it does not need to be rebuilt for each script run.
+ * 
+ * Results are in the order of the model tree, as a search of the model would return them. Objects that are added
+ * or moved after the index is built are added at the end, so the index puts its objects back in tree order
+ * the next time it is read after such a change.
+ * 
+ * Scripts in a pipeline step can read the same model on separate threads, so creating the index is synchronized
+ * and the index is updated and read while synchronized on the index. Lookups return copies.
+ * 
+ * @author Phillip Beauvoir
+ */
+class ModelIndex extends EContentAdapter {
+
+    // Map of id -> object. If there are duplicate ids this is the first object with the id.
+    private Map<String, EObject> idMap = new HashMap<>();
+    
+    // Map of duplicate id -> the other objects with the id, in the order they were added. This is normally empty.
+    private Map<String, List<EObject>> duplicateIdMap = new HashMap<>();
+    
+    // The model that this indexes
+    private IArchimateModel model;
+    
+    // Concepts, diagram models and folders in the order of the model tree if treeOrdered is true
+    private Set<EObject> typedObjects = new LinkedHashSet<>();
+    
+    // Map of concept, diagram model or folder -> its position in the model tree if treeOrdered is true
+    private Map<EObject, Integer> positions = new HashMap<>();
+    
+    // The next position given to an object as the index is built
+    private int nextPosition;
+    
+    // True when the index has been built and typedObjects and positions are in the order of the model tree
+    private boolean treeOrdered;
+    
+    // Map of EClass -> concepts, diagram models and folders of that class
+    private Map<EClass, Set<EObject>> typeMap = new HashMap<>();
+    
+    // Map of property key -> property value -> concepts, diagram models and folders that have that property
+    private Map<String, Map<String, Set<EObject>>> propertyMap = new HashMap<>();
+    
+    // Map of property key -> concepts, diagram models and folders that have a property with that key
+    private Map<String, Set<EObject>> propertyKeyMap = new HashMap<>();
+    
+    // Map of property -> owner. The owner is needed when a property is removed as it is no longer contained then
+    private Map<IProperty, EObject> propertyOwners = new HashMap<>();
+    
+    // Map of concept or diagram model -> diagram components that reference it
+    private Map<EObject, Set<EObject>> referencesMap = new HashMap<>();
+    
+    // Map of diagram component -> referenced concept or diagram model
+    private Map<EObject, EObject> referencedObjects = new HashMap<>();
+    
+    /**
+     * @return the ModelIndex for the model, creating and attaching it if needed
+     */
+    static synchronized ModelIndex get(IArchimateModel model) {
+        ModelIndex index = (ModelIndex)EcoreUtil.getExistingAdapter(model, ModelIndex.class);
+        
+        if(index == null) {
+            index = new ModelIndex(model);
+            model.eAdapters().add(index); // This will index all existing objects in the model in tree order
+            index.treeOrdered = true;
+        }
+        
+        return index;
+    }
+    
+    private ModelIndex(IArchimateModel model) {
+        this.model = model;
+    }
+    
+    /**
+     * @return The object in the model with the given id, or null if not found
+     */
+    synchronized EObject getObjectById(String id) {
+        return id == null ? null : idMap.get(id);
+    }
+    
+    /**
+     * @param eClass The class type. If this is an abstract class such as ArchimateElement then all sub-types are returned
+     * @return The concepts, diagram models and folders in the model that are of the given class type, or an empty list
+     */
+    synchronized List<EObject> getObjectsByType(EClass eClass) {
+        if(eClass == null) {
+            return new ArrayList<>();
+        }
+        
+        ensureTreeOrder();
+        
+        // Concrete class so return the bucket
+        if(!eClass.isAbstract()) {
+            Set<EObject> set = typeMap.get(eClass);
+            return set == null ? new ArrayList<>() : new ArrayList<>(set);
+        }
+        
+        // Abstract class so return all sub-types in tree order
+        List<EObject> list = new ArrayList<>();
+        
+        for(EObject eObject : typedObjects) {
+            if(eClass.isSuperTypeOf(eObject.eClass())) {
+                list.add(eObject);
+            }
+        }
+        
+        return list;
+    }
+    
+    /**
+     * @param key The property key
+     * @param value The property value. If this is null then objects with any value for the key are returned
+     * @return The concepts, diagram models and folders in the model that have a property with the given key and value, or an empty list
+     */
+    synchronized List<EObject> getObjectsByProperty(String key, String value) {
+        if(key == null) {
+            return new ArrayList<>();
+        }
+        
+        Set<EObject> set;
+        
+        // Any value
+        if(value == null) {
+            set = propertyKeyMap.get(key);
+        }
+        else {
+            Map<String, Set<EObject>> valueMap = propertyMap.get(key);
+            set = valueMap == null ? null : valueMap.get(value);
+        }
+        
+        if(set == null) {
+            return new ArrayList<>();
+        }
+        
+        // Properties can be added in any order so sort the owners into tree order
+        List<EObject> list = new ArrayList<>(set);
+        sortInTreeOrder(list);
+        return list;
+    }
+    
+    /**
+     * Sort objects into the order of the model tree.
+     * Objects that are not concepts, diagram models or folders are put at the end.
+     */
+    synchronized void sortInTreeOrder(List<EObject> list) {
+        ensureTreeOrder();
+        list.sort(Comparator.comparingInt(eObject -> positions.getOrDefault(eObject, Integer.MAX_VALUE)));
+    }
+    
+    /**
+     * @param eObject A concept or a diagram model
+     * @return The diagram components in the model that reference the concept, or the diagram model references that reference the diagram model, or an empty list
+     */
+    synchronized List<EObject> getReferencingComponents(EObject eObject) {
+        Set<EObject> set = eObject == null ? null : referencesMap.get(eObject);
+        return set == null ? new ArrayList<>() : new ArrayList<>(set);
+    }
+    
+    @Override
+    public boolean isAdapterForType(Object type) {
+        return type == ModelIndex.class;
+    }
+    
+    @Override
+    public synchronized void notifyChanged(Notification msg) {
+        // This will add or remove this adapter on contained objects
+        super.notifyChanged(msg);
+        
+        // An object moved in a list is not removed and added again but the tree order has changed
+        if(msg.getEventType() == Notification.MOVE && (msg.getNotifier() instanceof IFolder || msg.getNotifier() instanceof IArchimateModel)) {
+            treeOrdered = false;
+        }
+        
+        // Id changed
+        if(msg.getFeature() == IArchimatePackage.Literals.IDENTIFIER__ID && msg.getNotifier() instanceof EObject eObject && hasIndexedId(eObject)) {
+            removeId((String)msg.getOldValue(), eObject);
+            addId((String)msg.getNewValue(), eObject);
+        }
+        
+        // Property key changed
+        else if(msg.getFeature() == IArchimatePackage.Literals.PROPERTY__KEY && msg.getNotifier() instanceof IProperty property) {
+            EObject owner = propertyOwners.get(property);
+            if(owner != null) {
+                removeProperty((String)msg.getOldValue(), property.getValue(), owner);
+                addProperty(property.getKey(), property.getValue(), owner);
+            }
+        }
+        
+        // Property value changed
+        else if(msg.getFeature() == IArchimatePackage.Literals.PROPERTY__VALUE && msg.getNotifier() instanceof IProperty property) {
+            EObject owner = propertyOwners.get(property);
+            if(owner != null) {
+                removeProperty(property.getKey(), (String)msg.getOldValue(), owner);
+                addProperty(property.getKey(), property.getValue(), owner);
+            }
+        }
+        
+        // Referenced concept or diagram model changed
+        else if(isReferenceFeature(msg.getFeature()) && msg.getNotifier() instanceof EObject component && referencedObjects.containsKey(component)) {
+            removeReference(component);
+            addReference(component);
+        }
+    }
+    
+    @Override
+    protected synchronized void setTarget(EObject target) {
+        // Index the target before its contents so that objects are indexed in the same order as the model tree when the index is built.
+        // An object added later is added at the end so is not in tree order.
+        if(hasIndexedId(target)) {
+            addId(((IIdentifier)target).getId(), target);
+        }
+        
+        if(hasIndexedType(target)) {
+            typedObjects.add(target);
+            typeMap.computeIfAbsent(target.eClass(), eClass -> new LinkedHashSet<>()).add(target);
+            positions.put(target, nextPosition++);
+            treeOrdered = false;
+        }
+        
+        if(target instanceof IProperty property && hasIndexedType(property.eContainer())) {
+            propertyOwners.put(property, property.eContainer());
+            addProperty(property.getKey(), property.getValue(), property.eContainer());
+        }
+        
+        if(target instanceof IDiagramModelArchimateComponent || target instanceof IDiagramModelReference) {
+            addReference(target);
+        }
+        
+        super.setTarget(target);
+    }
+    
+    @Override
+    protected synchronized void unsetTarget(EObject target) {
+        super.unsetTarget(target);
+        
+        if(hasIndexedId(target)) {
+            removeId(((IIdentifier)target).getId(), target);
+        }
+        
+        if(hasIndexedType(target)) {
+            typedObjects.remove(target);
+            positions.remove(target);
+            Set<EObject> set = typeMap.get(target.eClass());
+            if(set != null) {
+                set.remove(target);
+            }
+        }
+        
+        if(target instanceof IProperty property) {
+            EObject owner = propertyOwners.remove(property);
+            if(owner != null) {
+                removeProperty(property.getKey(), property.getValue(), owner);
+            }
+        }
+        
+        removeReference(target);
+    }
+    
+    /**
+     * If objects have been added or moved since the index was built or last ordered then put the concepts,
+     * diagram models and folders back in the order of the model tree. These are only contained in folders
+     * so only the folders are walked.
+     */
+    private void ensureTreeOrder() {
+        if(treeOrdered) {
+            return;
+        }
+        
+        Set<EObject> ordered = new LinkedHashSet<>();
+        
+        for(TreeIterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            
+            if(typedObjects.contains(eObject)) {
+                ordered.add(eObject);
+            }
+            
+            if(!(eObject instanceof IFolder)) {
+                iter.prune();
+            }
+        }
+        
+        typedObjects = ordered;
+        typeMap.clear();
+        positions.clear();
+        nextPosition = 0;
+        
+        for(EObject eObject : typedObjects) {
+            typeMap.computeIfAbsent(eObject.eClass(), eClass -> new LinkedHashSet<>()).add(eObject);
+            positions.put(eObject, nextPosition++);
+        }
+        
+        treeOrdered = true;
+    }
+    
+    /**
+     * The model itself is not indexed as it is not one of its own contents
+     */
+    private boolean hasIndexedId(EObject eObject) {
+        return eObject instanceof IIdentifier && !(eObject instanceof IArchimateModel);
+    }
+    
+    /**
+     * Only concepts, diagram models and folders are indexed by type and property as these are the objects returned from a model selector
+     */
+    private boolean hasIndexedType(EObject eObject) {
+        return eObject instanceof IArchimateConcept || eObject instanceof IDiagramModel || eObject instanceof IFolder;
+    }
+    
+    private void addId(String id, EObject eObject) {
+        if(id != null) {
+            EObject existing = idMap.putIfAbsent(id, eObject); // If there are duplicate ids keep the first one
+            if(existing != null && existing != eObject) {
+                List<EObject> duplicates = duplicateIdMap.computeIfAbsent(id, k -> new ArrayList<>(1));
+                if(!duplicates.contains(eObject)) {
+                    duplicates.add(eObject);
+                }
+            }
+        }
+    }
+    
+    private void removeId(String id, EObject eObject) {
+        if(id == null) {
+            return;
+        }
+        
+        List<EObject> duplicates = duplicateIdMap.get(id);
+        
+        // If it's mapped to this object replace it with the next object that has the same id, if any
+        if(idMap.get(id) == eObject) {
+            if(duplicates == null) {
+                idMap.remove(id);
+            }
+            else {
+                idMap.put(id, duplicates.remove(0));
+            }
+        }
+        else if(duplicates != null) {
+            duplicates.remove(eObject);
+        }
+        
+        if(duplicates != null && duplicates.isEmpty()) {
+            duplicateIdMap.remove(id);
+        }
+    }
+    
+    private void addProperty(String key, String value, EObject owner) {
+        if(key != null) {
+            propertyMap.computeIfAbsent(key, k -> new HashMap<>()).computeIfAbsent(value, v -> new LinkedHashSet<>()).add(owner);
+            propertyKeyMap.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(owner);
+        }
+    }
+    
+    private void removeProperty(String key, String value, EObject owner) {
+        if(key == null) {
+            return;
+        }
+        
+        // Only remove the owner if it doesn't have another property with the same key, or with the same key and value
+        boolean hasKey = false;
+        boolean hasValue = false;
+        
+        if(owner instanceof IProperties properties) {
+            for(IProperty property : properties.getProperties()) {
+                if(propertyOwners.containsKey(property) && Objects.equals(property.getKey(), key)) {
+                    hasKey = true;
+                    hasValue |= Objects.equals(property.getValue(), value);
+                }
+            }
+        }
+        
+        Map<String, Set<EObject>> valueMap = propertyMap.get(key);
+        
+        if(!hasValue && valueMap != null) {
+            removeFromSet(valueMap, value, owner);
+            if(valueMap.isEmpty()) {
+                propertyMap.remove(key);
+            }
+        }
+        
+        if(!hasKey) {
+            removeFromSet(propertyKeyMap, key, owner);
+        }
+    }
+    
+    /**
+     * Remove eObject from the set mapped to key, and remove the set if it is then empty
+     */
+    private static <K> void removeFromSet(Map<K, Set<EObject>> map, K key, EObject eObject) {
+        Set<EObject> set = map.get(key);
+        if(set != null) {
+            set.remove(eObject);
+            if(set.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+    
+    private boolean isReferenceFeature(Object feature) {
+        return feature == IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_OBJECT__ARCHIMATE_ELEMENT
+                || feature == IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_CONNECTION__ARCHIMATE_RELATIONSHIP
+                || feature == IArchimatePackage.Literals.DIAGRAM_MODEL_REFERENCE__REFERENCED_MODEL;
+    }
+    
+    /**
+     * Add a diagram component to the references of the concept or diagram model that it references.
+     * The component is always stored even if it doesn't reference anything yet so that it is known to be in the model.
+     */
+    private void addReference(EObject component) {
+        EObject referenced = null;
+        
+        if(component instanceof IDiagramModelArchimateComponent dmc) {
+            referenced = dmc.getArchimateConcept();
+        }
+        else if(component instanceof IDiagramModelReference ref) {
+            referenced = ref.getReferencedModel();
+        }
+        
+        referencedObjects.put(component, referenced);
+        
+        if(referenced != null) {
+            referencesMap.computeIfAbsent(referenced, r -> new LinkedHashSet<>()).add(component);
+        }
+    }
+    
+    private void removeReference(EObject component) {
+        EObject referenced = referencedObjects.remove(component);
+        Set<EObject> set = referenced == null ? null : referencesMap.get(referenced);
+        
+        if(set != null) {
+            set.remove(component);
+            if(set.isEmpty()) {
+                referencesMap.remove(referenced);
+            }
+        }
+    }
+}
@@ -5,11 +5,21 @@
  */
 package com.archimatetool.script.dom.model;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.ui.PlatformUI;
@@ -28,7 +38,10 @@ import com.archimatetool.model.IArchimateModelObject;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IBounds;
+import com.archimatetool.model.IConnectable;
 import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelArchimateComponent;
+import com.archimatetool.model.IDiagramModelComponent;
 import com.archimatetool.model.IDiagramModelContainer;
 import com.archimatetool.model.IDiagramModelObject;
 import com.archimatetool.model.IFolder;
@@ -305,4 +318,153 @@ class ModelUtil {
         return eClass != null && IArchimatePackage.eINSTANCE.getArchimateElement().isSuperTypeOf(eClass) &&
                 !IArchimatePackage.eINSTANCE.getJunction().isSuperTypeOf(eClass);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Put diagram components in the order in which they are found by searching each of the model's diagram models in turn,
+     * which is the order of the model's diagram models and then tree order in each diagram model.
+     * Only the diagram models that contain the components are searched.
+     * @param components Diagram components
+     * @return The components that are in the model's diagram models in that order
+     */
+    static List<EObject> getInDiagramModelOrder(IArchimateModel model, Collection<? extends EObject> components) {
+        List<EObject> list = new ArrayList<>();
+        if(components.isEmpty()) {
+            return list;
+        }
+        
+        // Group the components by diagram model
+        Map<IDiagramModel, Set<EObject>> groups = new HashMap<>();
+        for(EObject component : components) {
+            IDiagramModel dm = ((IDiagramModelComponent)component).getDiagramModel();
+            if(dm != null) {
+                groups.computeIfAbsent(dm, key -> new HashSet<>()).add(component);
+            }
+        }
+        
+        for(IDiagramModel dm : model.getDiagramModels()) {
+            Set<EObject> group = groups.remove(dm);
+            if(group == null) {
+                continue;
+            }
+            
+            if(group.size() == 1) {
+                list.addAll(group);
+            }
+            else {
+                for(Iterator<EObject> iter = dm.eAllContents(); iter.hasNext();) {
+                    EObject eObject = iter.next();
+                    if(group.contains(eObject)) {
+                        list.add(eObject);
+                    }
+                }
+            }
+            
+            if(groups.isEmpty()) {
+                break;
+            }
+        }
+        
+        return list;
+    }
+    
+    /**
+     * Get all the objects that have to be deleted when deleting the given objects.
+     * The objects can be concepts, diagram components, diagram models and user folders in the model.
+     * As well as the objects these are the contents of the folders, the connected relationships of the concepts,
+     * the diagram components that reference the concepts and diagram models,
+     * and the diagram objects and connections that are attached to or contained in the diagram components.
+     * Each object is in the list once even if it is also in the closure of another object.
+     * @return The objects to delete with diagram components first, then concepts and then diagram models and folders
+     */
+    static List<EObject> getObjectsToDelete(IArchimateModel model, Collection<? extends EObject> objects) {
+        Set<IArchimateConcept> allConcepts = new LinkedHashSet<>();
+        Set<EObject> folderObjects = new LinkedHashSet<>(); // Diagram models and folders
+        Deque<EObject> componentsQueue = new ArrayDeque<>();
+        
+        for(EObject eObject : objects) {
+            if(eObject instanceof IArchimateConcept concept) {
+                allConcepts.add(concept);
+            }
+            else if(eObject instanceof IDiagramModel) {
+                folderObjects.add(eObject);
+            }
+            else if(eObject instanceof IDiagramModelComponent) {
+                componentsQueue.add(eObject);
+            }
+            else if(eObject instanceof IFolder folder) {
+                folderObjects.add(folder);
+                
+                // The folder's concepts and diagram models. Their own contents are deleted with them.
+                for(TreeIterator<EObject> iter = folder.eAllContents(); iter.hasNext();) {
+                    EObject child = iter.next();
+                    if(child instanceof IArchimateConcept concept) {
+                        allConcepts.add(concept);
+                        iter.prune();
+                    }
+                    else if(child instanceof IDiagramModel) {
+                        folderObjects.add(child);
+                        iter.prune();
+                    }
+                }
+            }
+        }
+        
+        // Concepts and their connected relationships, including relationships connected to those relationships
+        Deque<IArchimateConcept> conceptsQueue = new ArrayDeque<>(allConcepts);
+        
+        while(!conceptsQueue.isEmpty()) {
+            IArchimateConcept concept = conceptsQueue.poll();
+            
+            for(IArchimateRelationship relationship : concept.getSourceRelationships()) {
+                if(allConcepts.add(relationship)) {
+                    conceptsQueue.add(relationship);
+                }
+            }
+            
+            for(IArchimateRelationship relationship : concept.getTargetRelationships()) {
+                if(allConcepts.add(relationship)) {
+                    conceptsQueue.add(relationship);
+                }
+            }
+        }
+        
+        // Diagram components that reference the concepts and diagram models and the child objects and connections of all components
+        ModelIndex index = ModelIndex.get(model);
+        Set<EObject> components = new LinkedHashSet<>();
+        
+        for(IArchimateConcept concept : allConcepts) {
+            for(IDiagramModelArchimateComponent dmc : concept.getReferencingDiagramComponents()) {
+                if(dmc.getArchimateModel() == model) {
+                    componentsQueue.add(dmc);
+                }
+            }
+        }
+        
+        for(EObject folderObject : folderObjects) {
+            if(folderObject instanceof IDiagramModel) {
+                componentsQueue.addAll(index.getReferencingComponents(folderObject));
+            }
+        }
+        
+        while(!componentsQueue.isEmpty()) {
+            EObject component = componentsQueue.poll();
+            if(!components.add(component)) {
+                continue;
+            }
+            
+            if(component instanceof IConnectable connectable) {
+                componentsQueue.addAll(connectable.getSourceConnections());
+                componentsQueue.addAll(connectable.getTargetConnections());
+            }
+            
+            if(component instanceof IDiagramModelContainer container) {
+                componentsQueue.addAll(container.getChildren());
+            }
+        }
+        
+        List<EObject> list = new ArrayList<>(components);
+        list.addAll(allConcepts);
+        list.addAll(folderObjects);
+        return list;
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Cache of the proxy for each EObject so that EObjectProxy.get() returns the same proxy for an object
+ * rather than creating a new one each time it is called.
+ *
+ * Proxies are weakly referenced so that a proxy is garbage collected when scripts and collections no longer use it,
+ * and its entry is then removed. The EObjects are weakly referenced as well so that the cache doesn't keep an object,
+ * and so its model, in memory after a script run has ended and the model has been closed.
+ * EObjects don't override equals() and hashCode() so a WeakHashMap is keyed by identity.
+ *
+ * A WeakHashMap is not thread safe, so the cache is split into segments by the identity hash code of the EObject
+ * and access to each segment is synchronized on the segment. Scripts running on separate threads, such as the steps
+ * of a pipeline, then only wait for each other when they look up objects in the same segment at the same time.
+ *
+ * @author Phillip Beauvoir
+ */
+class ProxyCache {
+
+    // Number of segments. This must be a power of 2.
+    private static final int SEGMENTS = 16;
+
+    private static final Segment[] segments = new Segment[SEGMENTS];
+
+    static {
+        for(int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private static final ReferenceQueue<EObjectProxy> queue = new ReferenceQueue<>();
+
+    /**
+     * A segment of the cache. Access to the map is synchronized on the segment.
+     */
+    private static class Segment {
+        private final Map<EObject, ProxyReference> map = new WeakHashMap<>();
+    }
+
+    /**
+     * Weak reference to a proxy that knows its key so that the entry can be removed when the proxy is collected.
+     * The key is weakly referenced too as a value must not strongly reference its key in a WeakHashMap.
+     */
+    private static class ProxyReference extends WeakReference<EObjectProxy> {
+        private final WeakReference<EObject> eObject;
+
+        private ProxyReference(EObject eObject, EObjectProxy proxy) {
+            super(proxy, queue);
+            this.eObject = new WeakReference<>(eObject);
+        }
+    }
+
+    private ProxyCache() {}
+
+    /**
+     * @return The cached proxy for eObject, or null if there isn't one
+     */
+    static EObjectProxy get(EObject eObject) {
+        removeCollectedEntries();
+
+        Segment segment = getSegment(eObject);
+        synchronized(segment) {
+            ProxyReference ref = segment.map.get(eObject);
+            return ref != null ? ref.get() : null;
+        }
+    }
+
+    /**
+     * Make proxy the cached proxy for eObject unless the cached proxy can still be used.
+     * This is atomic so that threads that get the proxy for the same object at the same time get the same proxy.
+     * @param isUsable Tests whether the cached proxy can still be used
+     * @return The cached proxy
+     */
+    static EObjectProxy putIfAbsent(EObject eObject, EObjectProxy proxy, Predicate<EObjectProxy> isUsable) {
+        removeCollectedEntries();
+
+        Segment segment = getSegment(eObject);
+        synchronized(segment) {
+            ProxyReference ref = segment.map.get(eObject);
+            EObjectProxy cached = ref != null ? ref.get() : null;
+            if(cached != null && isUsable.test(cached)) {
+                return cached;
+            }
+
+            segment.map.put(eObject, new ProxyReference(eObject, proxy));
+            return proxy;
+        }
+    }
+
+    /**
+     * Make proxy the cached proxy for eObject
+     */
+    static void put(EObject eObject, EObjectProxy proxy) {
+        removeCollectedEntries();
+
+        Segment segment = getSegment(eObject);
+        synchronized(segment) {
+            segment.map.put(eObject, new ProxyReference(eObject, proxy));
+        }
+    }
+
+    /**
+     * @return The number of entries. Used for testing.
+     */
+    static int size() {
+        removeCollectedEntries();
+
+        int size = 0;
+
+        for(Segment segment : segments) {
+            synchronized(segment) {
+                size += segment.map.size();
+            }
+        }
+
+        return size;
+    }
+
+    private static Segment getSegment(EObject eObject) {
+        int hash = System.identityHashCode(eObject);
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static void removeCollectedEntries() {
+        for(Reference<? extends EObjectProxy> ref; (ref = queue.poll()) != null;) {
+            // Only remove the entry if it has not been replaced by a newer proxy. If the key has been collected the entry has already gone.
+            EObject eObject = ((ProxyReference)ref).eObject.get();
+            if(eObject != null) {
+                Segment segment = getSegment(eObject);
+                synchronized(segment) {
+                    if(segment.map.get(eObject) == ref) {
+                        segment.map.remove(eObject);
+                    }
+                }
+            }
+        }
+    }
+}
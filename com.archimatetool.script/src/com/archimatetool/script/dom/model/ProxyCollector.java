@@ -0,0 +1,137 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.script.RefreshUIHandler;
+import com.archimatetool.script.dom.model.SelectorFilterFactory.ISelectorFilter;
+
+/**
+ * Collects the results of a collection operation into a new collection in one pass.
+ *
+ * Each object is added only once, and if a selector is given only objects that match it are added.
+ * This lets an operation and its selector run together rather than building a collection and then filtering it.
+ * EObjects are tested before their proxy is got so that objects that don't match don't need a proxy.
+ * 
+ * As an operation can walk a large model the UI is updated, and the script stopped if it has been cancelled,
+ * after every REFRESH_COUNT objects.
+ *
+ * @author Phillip Beauvoir
+ */
+class ProxyCollector {
+
+    private static final int REFRESH_COUNT = 1000;
+
+    private final EObjectProxyCollection collection = new EObjectProxyCollection();
+
+    // EObjects don't override equals() and hashCode() so identity is enough for uniqueness
+    private final Set<EObject> added = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final ISelectorFilter filter;
+
+    private boolean done;
+
+    private int count;
+
+    /**
+     * A collector that adds all objects
+     */
+    ProxyCollector() {
+        filter = null;
+    }
+
+    /**
+     * A collector that adds only the objects that match the selector.
+     * If the selector is not valid nothing is added.
+     */
+    ProxyCollector(String selector) {
+        filter = SelectorFilterFactory.getInstance().getFilter(selector).orElse(null);
+        done = filter == null;
+    }
+
+    /**
+     * Add the proxy of eObject if it is accepted
+     */
+    void add(EObject eObject) {
+        refresh();
+        
+        if(done || eObject == null || added.contains(eObject) || (filter != null && !filter.accept(eObject))) {
+            return;
+        }
+
+        EObjectProxy proxy = EObjectProxy.get(eObject);
+        if(proxy != null) {
+            added.add(eObject);
+            collection.add(proxy);
+            matched();
+        }
+    }
+
+    /**
+     * Add proxy if it is accepted
+     */
+    void add(EObjectProxy proxy) {
+        refresh();
+        
+        if(done || proxy == null) {
+            return;
+        }
+
+        EObject eObject = proxy.getEObject();
+        if(!added.contains(eObject) && (filter == null || filter.accept(eObject))) {
+            added.add(eObject);
+            collection.add(proxy);
+            matched();
+        }
+    }
+
+    /**
+     * Add each proxy that is accepted
+     */
+    void addAll(Iterable<? extends EObjectProxy> proxies) {
+        if(proxies != null) {
+            for(EObjectProxy proxy : proxies) {
+                if(done) {
+                    return;
+                }
+                add(proxy);
+            }
+        }
+    }
+
+    /**
+     * @return true if no more objects can be added, either because the selector is not valid
+     *         or because it is unique and has been matched
+     */
+    boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return The collection of added objects
+     */
+    EObjectProxyCollection getCollection() {
+        return collection;
+    }
+
+    private void refresh() {
+        if(++count == REFRESH_COUNT) {
+            count = 0;
+            RefreshUIHandler.refresh();
+        }
+    }
+
+    private void matched() {
+        if(filter != null && filter.isUnique()) { // is unique so only one object is added
+            done = true;
+        }
+    }
+}
@@ -14,6 +14,8 @@ import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.proxy.ProxyExecutable;
 import org.graalvm.polyglot.proxy.ProxyObject;
 
+import com.archimatetool.script.ScriptRunContext;
+
 /**
  * ProxyUtil for creating Proxy Java objects
  * 
@@ -116,6 +118,7 @@ public class ProxyUtil {
     }
 
     private static boolean isGraalVM() {
-        return "com.oracle.truffle.js.scriptengine.GraalJSScriptEngine".equals(System.getProperty("script.engine"));
+        ScriptRunContext context = ScriptRunContext.peek();
+        return context != null && "com.oracle.truffle.js.scriptengine.GraalJSScriptEngine".equals(context.getEngineName());
     }
 }
@@ -5,13 +5,19 @@
  */
 package com.archimatetool.script.dom.model;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
 import org.eclipse.emf.ecore.EObject;
 
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelArchimateComponent;
@@ -43,9 +49,23 @@ class SelectorFilterFactory implements IModelConstants {
         return instance;
     }
     
+    // Maximum number of compiled filters to cache
+    private static final int MAX_CACHE_SIZE = 256;
+    
+    // Cache of selector -> compiled filter. When full the least recently used filter is removed.
+    @SuppressWarnings("serial")
+    private final Map<String, ISelectorFilter> cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ISelectorFilter> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    });
+    
     private SelectorFilterFactory() {}
 
     /**
+     * Filters are immutable and are cached so that a selector is only parsed once, and class names and
+     * other values are worked out once rather than each time an object is tested
      * @return a ISelectorFilter for the given selector
      */
     public Optional<ISelectorFilter> getFilter(String selector) {
@@ -53,61 +73,91 @@ class SelectorFilterFactory implements IModelConstants {
             return Optional.empty();
         }
         
+        // Don't use computeIfAbsent() as a compound selector creates filters for its parts while being created
+        ISelectorFilter filter = cache.get(selector);
+        
+        if(filter == null) {
+            filter = createFilter(selector);
+            if(filter != null) {
+                cache.put(selector, filter);
+            }
+        }
+        
+        return Optional.ofNullable(filter);
+    }
+    
+    /**
+     * @return a new ISelectorFilter for the given selector, or null if the selector is not valid
+     */
+    private ISelectorFilter createFilter(String selector) {
         // All model concepts, diagram models, and folders
         if(selector.equals("*")) {
-            return Optional.of(eObject -> {
+            return eObject -> {
                 return eObject instanceof IArchimateConcept || eObject instanceof IDiagramModel || eObject instanceof IFolder;
-            });
+            };
+        }
+        
+        // Compound selector (example - "folder > business-actor[Owner=IT], view")
+        else if(CompoundSelectorFilter.isCompoundSelector(selector)) {
+            ISelectorFilter filter = CompoundSelectorFilter.create(selector);
+            if(filter != null) {
+                return filter;
+            }
+            // If it's not valid it might be a class type so fall through to that
         }
         
         // All concepts
         else if(selector.equals(CONCEPT)) {
-            return Optional.of(eObject -> {
+            return eObject -> {
                 return getReferencedObject(eObject) instanceof IArchimateConcept;
-            });
+            };
         }
         
         // All elements
         else if(selector.equals(ELEMENT)) {
-            return Optional.of(eObject -> {
+            return eObject -> {
                 return getReferencedObject(eObject) instanceof IArchimateElement;
-            });
+            };
         }
         
         // All relationships
         else if(selector.equals(RELATION) || selector.equals(RELATIONSHIP)) {
-            return Optional.of(eObject -> {
+            return eObject -> {
                 return getReferencedObject(eObject) instanceof IArchimateRelationship;
-            });
+            };
         }
 
         // All views
         else if(selector.equals(VIEW)) {
-            return Optional.of(eObject -> {
+            return eObject -> {
                 return eObject instanceof IDiagramModel;
-            });
+            };
         }
 
         // Find single unique object by its Id (example - #1234)
         else if(selector.startsWith("#")) {
-            return Optional.of(new ISelectorFilter() {
+            String id = selector.substring(1);
+            
+            return new ISelectorFilter() {
                 @Override
                 public boolean accept(EObject eObject) {
-                    return eObject instanceof IIdentifier identifier && selector.substring(1).equals(identifier.getId());
+                    return eObject instanceof IIdentifier identifier && id.equals(identifier.getId());
                 }
                 
                 @Override
                 public boolean isUnique() {
                     return true;
                 }
-            });
+            };
         }
         
         // Find all objects with given name
         else if(selector.startsWith(".")) {
-            return Optional.of(eObject -> {
-                return eObject instanceof INameable nameable && selector.substring(1).equals(nameable.getName());
-            });
+            String name = selector.substring(1);
+            
+            return eObject -> {
+                return eObject instanceof INameable nameable && name.equals(nameable.getName());
+            };
         }
         
         // Find all objects with given type (class) and name
@@ -115,31 +165,71 @@ class SelectorFilterFactory implements IModelConstants {
             String[] s = selector.split("\\.", 2);
             
             if(s.length != 2) {
-                return Optional.empty();
+                return null;
             }
             
-            return Optional.of(eObject -> {
-                String type = ModelUtil.getCamelCase(s[0]);
-                String name = s[1];
-                
+            String type = ModelUtil.getCamelCase(s[0]);
+            String name = s[1];
+            
+            return eObject -> {
                 return getReferencedObject(eObject) instanceof INameable nameable &&
                         Objects.equals(nameable.getName(), name) && Objects.equals(nameable.eClass().getName(), type);
-            });
+            };
         }
 
         // Class type of object
-        return Optional.of(eObject -> {
+        String type = ModelUtil.getCamelCase(selector);
+        boolean isLegend = DIAGRAM_MODEL_LEGEND.equals(selector);
+        
+        return eObject -> {
             // Special case for legend
             if(eObject instanceof IDiagramModelNote note && note.isLegend()) {
-                return DIAGRAM_MODEL_LEGEND.equals(selector);
+                return isLegend;
             }
 
             EObject resolved = getReferencedObject(eObject);
-            return resolved != null && resolved.eClass().getName().equals(ModelUtil.getCamelCase(selector));
-        });
+            return resolved != null && resolved.eClass().getName().equals(type);
+        };
+    }
+    
+    /**
+     * @return The EClass if the selector is a type selector such as "element" or "business-actor", or null if it is not.
+     *         This can be used to get matching model objects by type rather than filtering all objects.
+     *         Apart from "concept", "element", "relation" and "view", a type selector only matches objects of exactly that class,
+     *         so null is returned for an abstract class such as "business-element" whose objects in the index are all of its subclasses.
+     */
+    EClass getTypeClass(String selector) {
+        if(selector == null || selector.length() == 0) {
+            return null;
+        }
+        
+        switch(selector) {
+            case CONCEPT:
+                return IArchimatePackage.eINSTANCE.getArchimateConcept();
+            case ELEMENT:
+                return IArchimatePackage.eINSTANCE.getArchimateElement();
+            case RELATION:
+            case RELATIONSHIP:
+                return IArchimatePackage.eINSTANCE.getArchimateRelationship();
+            case VIEW:
+                return IArchimatePackage.eINSTANCE.getDiagramModel();
+            case DIAGRAM_MODEL_LEGEND: // Special case as this is a note
+                return null;
+        }
+        
+        // Not a single class type
+        if(selector.equals("*") || selector.startsWith("#") || selector.contains(".") || CompoundSelectorFilter.isCompoundSelector(selector)) {
+            return null;
+        }
+        
+        EClassifier eClassifier = IArchimatePackage.eINSTANCE.getEClassifier(ModelUtil.getCamelCase(selector));
+        return eClassifier instanceof EClass eClass && !eClass.isAbstract() ? eClass : null;
     }
     
-    private EObject getReferencedObject(EObject eObject) {
+    /**
+     * @return The concept if eObject is a diagram component that references one, otherwise eObject
+     */
+    static EObject getReferencedObject(EObject eObject) {
         return eObject instanceof IDiagramModelArchimateComponent dmac ? dmac.getArchimateConcept() : eObject;
     }
 }
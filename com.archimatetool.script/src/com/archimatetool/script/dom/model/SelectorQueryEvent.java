@@ -0,0 +1,60 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.script.dom.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event for a selector query on a collection.
+ * 
+ * Queries are made many times in a script, so by default only those taking longer than the threshold are recorded.
+ * Nothing is recorded unless a recording with this event enabled is running.
+ * 
+ * @author Phillip Beauvoir
+ */
+@Name("com.archimatetool.script.SelectorQuery")
+@Label("Selector Query")
+@Description("A selector query on a collection of objects by a jArchi script")
+@Category({"Archi", "jArchi"})
+@Threshold("1 ms")
+@SuppressWarnings("nls")
+class SelectorQueryEvent extends Event {
+    
+    @Label("Operation")
+    @Description("find or filter")
+    String operation;
+    
+    @Label("Selector")
+    String selector;
+    
+    @Label("Input Size")
+    @Description("Number of objects in the collection that was queried")
+    int inputSize;
+    
+    @Label("Output Size")
+    @Description("Number of objects matched")
+    int outputSize;
+    
+    /**
+     * End the event and commit it if it is enabled and longer than its threshold
+     */
+    void commit(String operation, String selector, int inputSize, int outputSize) {
+        end();
+        
+        if(shouldCommit()) {
+            this.operation = operation;
+            this.selector = selector;
+            this.inputSize = inputSize;
+            this.outputSize = outputSize;
+            commit();
+        }
+    }
+}
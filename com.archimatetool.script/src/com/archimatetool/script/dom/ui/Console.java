@@ -96,8 +96,7 @@ public class Console {
         ConsoleView viewer = findConsoleViewer();
         
         if(viewer != null) {
-            viewer.setTextColor(currentColor);
-            viewer.append(output);
+            viewer.append(output, currentColor);
         }
         else {
             System.out.print(output);
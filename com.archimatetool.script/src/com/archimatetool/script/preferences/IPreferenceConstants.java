@@ -23,6 +23,9 @@ public interface IPreferenceConstants {
     String PREFS_CONSOLE_WORD_WRAP = "consoleWordWrap";
     String PREFS_CONSOLE_SCROLL_LOCK = "consoleScrollLock";
     String PREFS_CONSOLE_FONT = "consoleFont";
+    String PREFS_CONSOLE_BUFFER_SIZE = "consoleBufferSize";
+    
+    String PREFS_RUN_REPORT = "runReport";
     
     String PREFS_JS_ENGINE = "jsEngine";
     
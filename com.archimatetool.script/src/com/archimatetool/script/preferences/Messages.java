@@ -44,8 +44,14 @@ public class Messages extends NLS {
 
     public static String ScriptPreferencePage_25;
 
+    public static String ScriptPreferencePage_26;
+
     public static String ScriptPreferencePage_27;
 
+    public static String ScriptPreferencePage_28;
+
+    public static String ScriptPreferencePage_29;
+
     public static String ScriptPreferencePage_3;
 
     public static String ScriptPreferencePage_4;
@@ -44,6 +44,9 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer impleme
 		
 		store.setDefault(PREFS_CONSOLE_WORD_WRAP, true);
 		store.setDefault(PREFS_CONSOLE_SCROLL_LOCK, false);
+		store.setDefault(PREFS_CONSOLE_BUFFER_SIZE, 1000000);
+		
+		store.setDefault(PREFS_RUN_REPORT, false);
 		
 		store.setDefault(PREFS_JS_ENGINE, 2);
 		
@@ -26,6 +26,7 @@ import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.FontDialog;
 import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
@@ -60,6 +61,7 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
 
     private Label fConsoleFontLabel;
     private FontData fConsoleFontData = fDefaultFontData;
+    private Spinner fConsoleBufferSizeSpinner;
     
     private String[] DOUBLE_CLICK_BEHAVIOURS = {
             Messages.ScriptPreferencePage_4,
@@ -68,6 +70,7 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     };
     
     private Button fShowPreviewButton;
+    private Button fRunReportButton;
     private Label fPreviewFontLabel;
     private FontData fPreviewFontData = fDefaultFontData;
     
@@ -165,6 +168,17 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fConsoleFontLabel = new Label(displayGroup, SWT.NULL);
         GridDataFactory.create(GridData.FILL_HORIZONTAL).applyTo(fConsoleFontLabel);        
         
+        // Console buffer size
+        label = new Label(displayGroup, SWT.NULL);
+        label.setText(Messages.ScriptPreferencePage_26);
+        
+        fConsoleBufferSizeSpinner = new Spinner(displayGroup, SWT.BORDER);
+        fConsoleBufferSizeSpinner.setMinimum(0);
+        fConsoleBufferSizeSpinner.setMaximum(100000000);
+        fConsoleBufferSizeSpinner.setIncrement(10000);
+        fConsoleBufferSizeSpinner.setPageIncrement(100000);
+        GridDataFactory.create(GridData.FILL_HORIZONTAL).span(2, 1).applyTo(fConsoleBufferSizeSpinner);
+        
         // Preview Font
         label = new Label(displayGroup, SWT.NULL);
         label.setText(Messages.ScriptPreferencePage_24);
@@ -187,6 +201,12 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fShowPreviewButton.setText(Messages.ScriptPreferencePage_25);
         GridDataFactory.create(GridData.FILL_HORIZONTAL).span(3, 1).applyTo(fShowPreviewButton);
         
+        // Show Run Report
+        fRunReportButton = new Button(displayGroup, SWT.CHECK);
+        fRunReportButton.setText(Messages.ScriptPreferencePage_28);
+        fRunReportButton.setToolTipText(Messages.ScriptPreferencePage_29);
+        GridDataFactory.create(GridData.FILL_HORIZONTAL).span(3, 1).applyTo(fRunReportButton);
+        
         // JavaScript Group
         Group jsGroup = new Group(client, SWT.NULL);
         jsGroup.setText(Messages.ScriptPreferencePage_27);
@@ -292,6 +312,7 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fEditorPathTextField.setText(getPreferenceStore().getString(PREFS_EDITOR));
         fDoubleClickBehaviourCombo.select(getPreferenceStore().getInt(PREFS_DOUBLE_CLICK_BEHAVIOUR));
         fShowPreviewButton.setSelection(getPreferenceStore().getBoolean(PREFS_SHOW_PREVIEW));
+        fRunReportButton.setSelection(getPreferenceStore().getBoolean(PREFS_RUN_REPORT));
         
         String consoleFontName = getPreferenceStore().getString(PREFS_CONSOLE_FONT);
         if(StringUtils.isSet(consoleFontName)) {
@@ -299,6 +320,8 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         }
         updateFontLabel(fConsoleFontLabel, fConsoleFontData);
         
+        fConsoleBufferSizeSpinner.setSelection(getPreferenceStore().getInt(PREFS_CONSOLE_BUFFER_SIZE));
+        
         String previewFontName = getPreferenceStore().getString(PREFS_PREVIEW_FONT);
         if(StringUtils.isSet(previewFontName)) {
             fPreviewFontData = new FontData(previewFontName);
@@ -324,9 +347,11 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         getPreferenceStore().setValue(PREFS_EDITOR, fEditorPathTextField.getText());
         getPreferenceStore().setValue(PREFS_DOUBLE_CLICK_BEHAVIOUR, fDoubleClickBehaviourCombo.getSelectionIndex());
         getPreferenceStore().setValue(PREFS_SHOW_PREVIEW, fShowPreviewButton.getSelection());
+        getPreferenceStore().setValue(PREFS_RUN_REPORT, fRunReportButton.getSelection());
         
         getPreferenceStore().setValue(PREFS_CONSOLE_FONT, fDefaultFontData.equals(fConsoleFontData) ? "" : fConsoleFontData.toString()); //$NON-NLS-1$
         getPreferenceStore().setValue(PREFS_PREVIEW_FONT, fDefaultFontData.equals(fPreviewFontData) ? "" : fPreviewFontData.toString()); //$NON-NLS-1$
+        getPreferenceStore().setValue(PREFS_CONSOLE_BUFFER_SIZE, fConsoleBufferSizeSpinner.getSelection());
         
         if(fJSCombo != null) {
             getPreferenceStore().setValue(PREFS_JS_ENGINE, fJSCombo.getSelectionIndex());
@@ -349,9 +374,11 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fEditorPathTextField.setText(getPreferenceStore().getDefaultString(PREFS_EDITOR));
         fDoubleClickBehaviourCombo.select(getPreferenceStore().getDefaultInt(PREFS_DOUBLE_CLICK_BEHAVIOUR));
         fShowPreviewButton.setSelection(getPreferenceStore().getDefaultBoolean(PREFS_SHOW_PREVIEW));
+        fRunReportButton.setSelection(getPreferenceStore().getDefaultBoolean(PREFS_RUN_REPORT));
         
         fConsoleFontData = fDefaultFontData;
         updateFontLabel(fConsoleFontLabel, fConsoleFontData);
+        fConsoleBufferSizeSpinner.setSelection(getPreferenceStore().getDefaultInt(PREFS_CONSOLE_BUFFER_SIZE));
         
         fPreviewFontData = fDefaultFontData;
         updateFontLabel(fPreviewFontLabel, fPreviewFontData);
@@ -5,9 +5,13 @@
  */
 package com.archimatetool.script.views.console;
 
-import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.ui.PlatformUI;
@@ -36,8 +40,8 @@ public class ConsoleOutput {
                 oldOut = System.out;
                 oldErr = System.err;
                 
-                newOut = new PrintStream(new DumpStream(new Color(0, 0, 255)), true);
-                newErr = new PrintStream(new DumpStream(new Color(255, 0, 0)), true);
+                newOut = new PrintStream(new DumpStream(new Color(0, 0, 255)), true, StandardCharsets.UTF_8);
+                newErr = new PrintStream(new DumpStream(new Color(255, 0, 0)), true, StandardCharsets.UTF_8);
             }
         }
 
@@ -67,10 +71,17 @@ public class ConsoleOutput {
     }
 
     /**
-     * An OutputStream that redirects all System output to the Console
+     * An OutputStream that redirects all System output to the Console.
+     * Bytes are decoded as UTF-8 and an incomplete multi-byte sequence at the end of a write is kept until the next write.
+     * Decoded text is sent to the Console on flush, and the Console appends it on the UI thread.
      */
     private static class DumpStream extends OutputStream {
-        StringBuffer buf;
+        ByteBuffer bytes = ByteBuffer.allocate(8192);
+        CharBuffer chars = CharBuffer.allocate(8192);
+        StringBuilder text = new StringBuilder();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
         Color color;
         
         public DumpStream(Color color) {
@@ -78,26 +89,49 @@ public class ConsoleOutput {
         }
         
         @Override
-        public void write(int b) {
-            if(buf == null) {
-                buf = new StringBuffer();
+        public synchronized void write(int b) {
+            write(new byte[] { (byte)b }, 0, 1);
+        }
+        
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            while(len > 0) {
+                int count = Math.min(len, bytes.remaining());
+                bytes.put(b, off, count);
+                off += count;
+                len -= count;
+                decode();
+            }
+        }
+        
+        /**
+         * Decode the bytes in the byte buffer, leaving any incomplete sequence in the buffer
+         */
+        private void decode() {
+            bytes.flip();
+            
+            while(true) {
+                boolean overflow = decoder.decode(bytes, chars, false).isOverflow();
+                chars.flip();
+                text.append(chars);
+                chars.clear();
+                if(!overflow) {
+                    break;
+                }
             }
             
-            buf.append((char)(b & 255));
+            bytes.compact();
         }
         
         @Override
-        public void flush() throws IOException {
+        public synchronized void flush() {
             ConsoleView console = getConsoleViewer();
             
-            if(buf != null && console != null) {
-                Color oldColor = console.getTextColor();
-                console.setTextColor(color);
-                console.append(buf.toString());
-                console.setTextColor(oldColor);
+            if(text.length() > 0 && console != null) {
+                console.append(text.toString(), color);
             }
             
-            buf = null;
+            text.setLength(0);
         }
     }
 }
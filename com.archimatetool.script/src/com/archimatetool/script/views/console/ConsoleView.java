@@ -5,6 +5,15 @@
  */
 package com.archimatetool.script.views.console;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.IToolBarManager;
@@ -17,6 +26,7 @@ import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IActionBars;
 import org.eclipse.ui.IWorkbenchPart;
 import org.eclipse.ui.PlatformUI;
@@ -44,12 +54,41 @@ extends ViewPart implements IContributedContentsView {
     private StyledText fTextPane;
     private Color fTextColor;
     
+    // Delay in ms before pending text is appended to the text pane
+    private static final int DRAIN_DELAY = 50;
+    
+    // When the text is longer than the buffer size it is trimmed from the start down to this fraction of the buffer size
+    private static final double TRIM_FRACTION = 0.8;
+    
+    // Maximum number of characters waiting to be appended when the buffer size is not limited
+    private static final int MAX_PENDING_CHARS = 4_000_000;
+    
+    // Text waiting to be appended to the text pane. This can be added to from any thread.
+    private Queue<Chunk> fPendingText = new ConcurrentLinkedQueue<>();
+    private AtomicLong fPendingChars = new AtomicLong();
+    
+    // Set when pending text has been dropped because there was more than the buffer size
+    private AtomicBoolean fPendingDropped = new AtomicBoolean();
+    
+    // Threads waiting for pending text to be appended wait on this
+    private Object fDrainLock = new Object();
+    
+    private AtomicBoolean fDrainScheduled = new AtomicBoolean();
+    private Runnable fDrainRunnable = this::drainPendingText;
+    private Display fDisplay;
+    
     private IPreferenceStore prefsStore = ArchiScriptPlugin.getInstance().getPreferenceStore();
     
+    // Buffer size preference, kept here as it is read each time text is queued
+    private volatile int fBufferSize = prefsStore.getInt(IPreferenceConstants.PREFS_CONSOLE_BUFFER_SIZE);
+    
     private IPropertyChangeListener prefsListener = (event) -> {
         if(IPreferenceConstants.PREFS_CONSOLE_FONT == event.getProperty()) {
             setFontFromPreferences();
         }
+        else if(IPreferenceConstants.PREFS_CONSOLE_BUFFER_SIZE == event.getProperty()) {
+            fBufferSize = prefsStore.getInt(IPreferenceConstants.PREFS_CONSOLE_BUFFER_SIZE);
+        }
     };
     
     @Override
@@ -58,6 +97,8 @@ extends ViewPart implements IContributedContentsView {
         fTextPane.setEditable(false);
         fTextPane.setTabs(4);
         fTextPane.setWordWrap(prefsStore.getBoolean(IPreferenceConstants.PREFS_CONSOLE_WORD_WRAP));
+        
+        fDisplay = parent.getDisplay();
 
         setFontFromPreferences();
         
@@ -69,6 +110,7 @@ extends ViewPart implements IContributedContentsView {
             
             @Override
             public void run() {
+                clearPendingText();
                 fTextPane.setText(""); //$NON-NLS-1$
             }
         };
@@ -143,44 +185,232 @@ extends ViewPart implements IContributedContentsView {
         }
     }
 
+    /**
+     * Append text in the current text color
+     */
     public void append(String string) {
-        if(!fTextPane.isDisposed()) {
-            StyleRange sr = createStyleRange(string);
-            fTextPane.append(string);
-            fTextPane.setStyleRange(sr);
-            
-            // Scroll to end
-            if(!fActionScrollLock.isChecked()) {
-                fTextPane.setTopIndex(fTextPane.getLineCount() - 1);
-                fTextPane.setCaretOffset(fTextPane.getText().length());
+        append(string, fTextColor);
+    }
+    
+    /**
+     * Append text in the given color.
+     * The text is queued and appended to the text pane in batches on the UI thread so this can be called from any thread.
+     */
+    public void append(String string, Color color) {
+        if(string != null && !string.isEmpty()) {
+            queue(new Chunk(string, color, false));
+        }
+    }
+    
+    /**
+     * Replace all text, including any text that is waiting to be appended
+     */
+    public void setText(String text) {
+        clearPendingText();
+        queue(new Chunk(text == null ? "" : text, fTextColor, true)); //$NON-NLS-1$
+    }
+    
+    private void queue(Chunk chunk) {
+        fPendingText.add(chunk);
+        fPendingChars.addAndGet(chunk.text.length());
+        
+        if(fDisplay == null || fDisplay.isDisposed()) {
+            return;
+        }
+        
+        if(fDrainScheduled.compareAndSet(false, true)) {
+            if(Display.getCurrent() == fDisplay) {
+                fDisplay.timerExec(DRAIN_DELAY, fDrainRunnable);
             }
-            
-            // Update UI
+            else {
+                fDisplay.asyncExec(() -> fDisplay.timerExec(DRAIN_DELAY, fDrainRunnable));
+            }
+        }
+        
+        // Update UI if this is a script running on the UI thread so that the timer can run
+        if(Display.getCurrent() == fDisplay) {
             RefreshUIHandler.refresh();
         }
+        
+        limitPendingText();
     }
     
-    public void setText(String text) {
-        if(!fTextPane.isDisposed()) {
-            fTextPane.setText(text);
+    /**
+     * Keep the pending text within bounds when a script prints faster than the text pane is updated.
+     * If the buffer size is limited the oldest text is dropped when the text after it fills the buffer, as it would be trimmed from the text pane anyway.
+     * If the buffer size is not limited a script on another thread waits for the text to be appended,
+     * and a script on the UI thread appends it now.
+     */
+    private void limitPendingText() {
+        int bufferSize = fBufferSize;
+        
+        if(bufferSize > 0) {
+            Chunk head;
+            while((head = fPendingText.peek()) != null && fPendingChars.get() - head.text.length() >= bufferSize) {
+                if(fPendingText.remove(head)) {
+                    fPendingChars.addAndGet(-head.text.length());
+                    fPendingDropped.set(true);
+                }
+            }
+            return;
+        }
+        
+        if(fPendingChars.get() <= MAX_PENDING_CHARS) {
+            return;
+        }
+        
+        if(Display.getCurrent() == fDisplay) {
+            drainPendingText();
+            return;
+        }
+        
+        synchronized(fDrainLock) {
+            while(fPendingChars.get() > MAX_PENDING_CHARS && !fDisplay.isDisposed()) {
+                try {
+                    fDrainLock.wait(DRAIN_DELAY);
+                }
+                catch(InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void clearPendingText() {
+        Chunk chunk;
+        while((chunk = fPendingText.poll()) != null) {
+            fPendingChars.addAndGet(-chunk.text.length());
+        }
+    }
+    
+    /**
+     * Append all pending text to the text pane in one go, with one style range for each run of text in the same color
+     */
+    private void drainPendingText() {
+        fDrainScheduled.set(false);
+        
+        if(fTextPane == null || fTextPane.isDisposed()) {
+            clearPendingText();
+            notifyDrained();
+            return;
+        }
+        
+        // Style ranges start at offsets in the batch and are moved to the end of the text pane when the batch is appended
+        StringBuilder sb = new StringBuilder();
+        List<StyleRange> styleRanges = new ArrayList<>();
+        
+        // If text was dropped the text after it fills the buffer so replaces the text pane
+        boolean replace = fPendingDropped.getAndSet(false);
+        
+        Chunk chunk;
+        while((chunk = fPendingText.poll()) != null) {
+            fPendingChars.addAndGet(-chunk.text.length());
             
-            // Scroll to end
-            if(!fActionScrollLock.isChecked()) {
-                fTextPane.setTopIndex(fTextPane.getLineCount() - 1);
-                fTextPane.setCaretOffset(fTextPane.getText().length());
+            if(chunk.replace) {
+                replace = true;
+                sb.setLength(0);
+                styleRanges.clear();
             }
             
-            // Update UI
-            RefreshUIHandler.refresh();
+            StyleRange last = styleRanges.isEmpty() ? null : styleRanges.get(styleRanges.size() - 1);
+            if(last != null && Objects.equals(last.foreground, chunk.color)) {
+                last.length += chunk.text.length();
+            }
+            else if(!chunk.text.isEmpty()) {
+                styleRanges.add(new StyleRange(sb.length(), chunk.text.length(), chunk.color, null));
+            }
+            
+            sb.append(chunk.text);
+        }
+        
+        notifyDrained();
+        
+        // Trim the batch before it is appended so that text that would be trimmed straight away is not added
+        int bufferSize = fBufferSize;
+        if(bufferSize > 0 && sb.length() > bufferSize) {
+            trimBatch(sb, styleRanges, bufferSize);
+            replace = true;
+        }
+        
+        if(replace) {
+            fTextPane.setText(""); //$NON-NLS-1$
+        }
+        
+        if(sb.length() > 0) {
+            int start = fTextPane.getCharCount();
+            fTextPane.append(sb.toString());
+            for(StyleRange sr : styleRanges) {
+                sr.start += start;
+                fTextPane.setStyleRange(sr);
+            }
+        }
+        
+        trimText();
+        
+        // Scroll to end
+        if(!fActionScrollLock.isChecked()) {
+            fTextPane.setTopIndex(fTextPane.getLineCount() - 1);
+            fTextPane.setCaretOffset(fTextPane.getCharCount());
+        }
+    }
+    
+    private void notifyDrained() {
+        synchronized(fDrainLock) {
+            fDrainLock.notifyAll();
         }
     }
     
-    private StyleRange createStyleRange(String string) {
-        StyleRange sr = new StyleRange();
-        sr.foreground = fTextColor;
-        sr.start = fTextPane.getCharCount();
-        sr.length = string.length();
-        return sr;
+    /**
+     * Remove whole lines from the start of a batch that is longer than the buffer size, and remove or shorten their style ranges
+     */
+    private void trimBatch(StringBuilder sb, List<StyleRange> styleRanges, int bufferSize) {
+        int trimLength = sb.length() - (int)(bufferSize * TRIM_FRACTION);
+        
+        // Trim to the start of the next line if there is one
+        if(sb.charAt(trimLength - 1) != '\n') {
+            int next = sb.indexOf("\n", trimLength); //$NON-NLS-1$
+            if(next != -1) {
+                trimLength = next + 1;
+            }
+        }
+        
+        sb.delete(0, trimLength);
+        
+        for(Iterator<StyleRange> iter = styleRanges.iterator(); iter.hasNext();) {
+            StyleRange sr = iter.next();
+            int end = sr.start + sr.length - trimLength;
+            if(end <= 0) {
+                iter.remove();
+            }
+            else {
+                sr.start = Math.max(0, sr.start - trimLength);
+                sr.length = end - sr.start;
+            }
+        }
+    }
+    
+    /**
+     * If the text is longer than the buffer size remove whole lines from the start
+     */
+    private void trimText() {
+        int bufferSize = fBufferSize;
+        int charCount = fTextPane.getCharCount();
+        
+        if(bufferSize <= 0 || charCount <= bufferSize) {
+            return;
+        }
+        
+        // Trim to below the buffer size so that we don't trim on every append
+        int trimLength = charCount - (int)(bufferSize * TRIM_FRACTION);
+        
+        // Trim to the start of the next line if there is one
+        int line = fTextPane.getLineAtOffset(trimLength);
+        if(line < fTextPane.getLineCount() - 1 && fTextPane.getOffsetAtLine(line) != trimLength) {
+            trimLength = fTextPane.getOffsetAtLine(line + 1);
+        }
+        
+        fTextPane.replaceTextRange(0, trimLength, ""); //$NON-NLS-1$
     }
     
     private void setFontFromPreferences() {
@@ -200,5 +430,13 @@ extends ViewPart implements IContributedContentsView {
     public void dispose() {
         super.dispose();
         prefsStore.removePropertyChangeListener(prefsListener);
+        clearPendingText();
+        notifyDrained();
+    }
+    
+    /**
+     * Text waiting to be appended
+     */
+    private record Chunk(String text, Color color, boolean replace) {
     }
 }
@@ -23,6 +23,10 @@ public class Messages extends NLS {
 
     public static String RunScriptAction_1;
 
+    public static String RunScriptAction_2;
+
+    public static String RunScriptAction_3;
+
     public static String ScriptsFileViewer_0;
 
     public static String ScriptsFileViewer_1;
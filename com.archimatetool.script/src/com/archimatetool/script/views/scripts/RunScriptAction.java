@@ -13,6 +13,7 @@ import org.eclipse.jface.dialogs.MessageDialog;
 import com.archimatetool.script.IArchiScriptImages;
 import com.archimatetool.script.RunArchiScript;
 import com.archimatetool.script.ScriptFiles;
+import com.archimatetool.script.ScriptProfiler;
 
 
 /**
@@ -21,11 +22,21 @@ import com.archimatetool.script.ScriptFiles;
 public class RunScriptAction extends Action {
 
     private File fFile;
+    
+    private boolean fProfile;
 
     public RunScriptAction() {
+        this(false);
+    }
+    
+    /**
+     * @param profile If true the script is run with the profiler and the profile is written to the Console
+     */
+    public RunScriptAction(boolean profile) {
+        fProfile = profile;
         setImageDescriptor(IArchiScriptImages.ImageFactory.getImageDescriptor(IArchiScriptImages.ICON_RUN));
-        setText(Messages.RunScriptAction_0);
-        setToolTipText(Messages.RunScriptAction_1);
+        setText(profile ? Messages.RunScriptAction_2 : Messages.RunScriptAction_0);
+        setToolTipText(profile ? Messages.RunScriptAction_3 : Messages.RunScriptAction_1);
     }
     
     public void setFile(File file) {
@@ -38,6 +49,11 @@ public class RunScriptAction extends Action {
         if(isEnabled()) {
             try {
                 RunArchiScript runner = new RunArchiScript(fFile);
+                
+                if(fProfile) {
+                    runner.setProfiler(new ScriptProfiler(null));
+                }
+                
                 runner.run();
             }
             catch(Exception ex) {
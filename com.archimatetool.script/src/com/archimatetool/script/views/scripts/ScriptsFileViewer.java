@@ -81,6 +81,7 @@ extends AbstractFileView implements ITabbedPropertySheetPageContributor {
     public static String HELP_ID = ArchiScriptPlugin.PLUGIN_ID + ".scriptsViewHelp"; //$NON-NLS-1$
     
     private RunScriptAction fActionRun;
+    private RunScriptAction fActionRunProfiler;
     private IAction fActionShowConsole;
     private MarkFolderHiddenAction fActionHideFolder;
     
@@ -123,6 +124,10 @@ extends AbstractFileView implements ITabbedPropertySheetPageContributor {
         fActionRun = new RunScriptAction();
         fActionRun.setEnabled(false);
         
+        // Run with Profiler
+        fActionRunProfiler = new RunScriptAction(true);
+        fActionRunProfiler.setEnabled(false);
+        
         // Script
         fActionNewFile.setText(Messages.ScriptsFileViewer_0);
         fActionNewFile.setToolTipText(Messages.ScriptsFileViewer_1);
@@ -218,6 +223,7 @@ extends AbstractFileView implements ITabbedPropertySheetPageContributor {
     public void updateActions(IStructuredSelection selection) {
         super.updateActions(selection);
         fActionRun.setFile((File)selection.getFirstElement());        
+        fActionRunProfiler.setFile((File)selection.getFirstElement());
         fActionHideFolder.setSelection(selection.toArray());
     }
     
@@ -245,6 +251,7 @@ extends AbstractFileView implements ITabbedPropertySheetPageContributor {
             manager.add(new Separator(IWorkbenchActionConstants.EDIT_START));
             manager.add(fActionEdit);
             manager.add(fActionRun);
+            manager.add(fActionRunProfiler);
             manager.add(new Separator(IWorkbenchActionConstants.EDIT_END));
             manager.add(fActionDelete);
             manager.add(fActionRename);